@@ -0,0 +1,80 @@
+package com.example.reading.bench;
+
+import com.example.reading.model.User;
+import com.example.reading.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Token work done on every authenticated request. "cached" is the normal path
+// once a token has been seen; "uncached" runs with the claims cache sized to zero
+// so each call pays for signature verification and JSON parsing.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = Base64.getEncoder()
+            .encodeToString("benchmark-secret-benchmark-secret-0123456789".getBytes());
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        cached = jwtUtil(10_000);
+        uncached = jwtUtil(0);
+        user = new User();
+        user.setId(UUID.randomUUID());
+        user.setParentId(UUID.randomUUID());
+        user.setUsername("kid1");
+        user.setRole(User.UserRole.CHILD);
+        token = cached.generateToken(user.getUsername(), user);
+        cached.validateToken(token);
+    }
+
+    private static JwtUtil jwtUtil(long claimsCacheSize) {
+        StandardEnvironment env = new StandardEnvironment();
+        env.getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+                "JWT_SECRET", SECRET,
+                "jwt.claims-cache.max-size", claimsCacheSize)));
+        return new JwtUtil(env, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(user.getUsername(), user);
+    }
+
+    @Benchmark
+    public boolean validateTokenCached() {
+        return cached.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTokenUncached() {
+        return uncached.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractUsernameCached() {
+        return cached.extractUsername(token);
+    }
+
+    @Benchmark
+    public String extractUsernameUncached() {
+        return uncached.extractUsername(token);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.reading.bench;
+
+import com.example.reading.dto.LibraryBookDto;
+import com.example.reading.dto.RewardEntryDto;
+import com.example.reading.model.RewardType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Jackson cost of the reward history and library payloads at realistic list
+// sizes: the typed DTOs the endpoints return now vs. the Map<String, Object>
+// rows they used to build in the controller, with the same JSON shape.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadSerializationBenchmark {
+
+    @Param({ "20", "100", "1000" })
+    public int size;
+
+    private ObjectMapper mapper;
+    private List<RewardEntryDto> rewardDtos;
+    private List<Map<String, Object>> rewardMaps;
+    private List<LibraryBookDto> libraryDtos;
+    private List<Map<String, Object>> libraryMaps;
+
+    @Setup
+    public void setup() {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        LocalDateTime now = LocalDateTime.now();
+        rewardDtos = new ArrayList<>(size);
+        rewardMaps = new ArrayList<>(size);
+        libraryDtos = new ArrayList<>(size);
+        libraryMaps = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UUID id = UUID.randomUUID(), chapterReadId = UUID.randomUUID(), chapterId = UUID.randomUUID(),
+                    bookReadId = UUID.randomUUID();
+            String googleBookId = "book" + (i % 25);
+            rewardDtos.add(new RewardEntryDto(id, RewardType.EARN, 1.0, null, now,
+                    chapterReadId, now, chapterId, "Chapter " + i, i, googleBookId, now, now,
+                    bookReadId, now, null, true, googleBookId, "Title " + i, "Author One, Author Two"));
+
+            Map<String, Object> chapter = new HashMap<>();
+            chapter.put("id", chapterId);
+            chapter.put("name", "Chapter " + i);
+            chapter.put("chapterIndex", i);
+            chapter.put("bookGoogleBookId", googleBookId);
+            chapter.put("createdAt", now);
+            chapter.put("updatedAt", now);
+            Map<String, Object> book = new HashMap<>();
+            book.put("googleBookId", googleBookId);
+            book.put("title", "Title " + i);
+            book.put("authors", List.of("Author One", "Author Two"));
+            Map<String, Object> bookRead = new HashMap<>();
+            bookRead.put("id", bookReadId);
+            bookRead.put("startDate", now);
+            bookRead.put("endDate", null);
+            bookRead.put("inProgress", true);
+            bookRead.put("book", book);
+            Map<String, Object> reward = new HashMap<>();
+            reward.put("id", id);
+            reward.put("type", RewardType.EARN);
+            reward.put("amount", 1.0);
+            reward.put("note", null);
+            reward.put("createdAt", now);
+            reward.put("chapterReadId", chapterReadId);
+            reward.put("completionDate", now);
+            reward.put("chapter", chapter);
+            reward.put("bookRead", bookRead);
+            rewardMaps.add(reward);
+
+            libraryDtos.add(new LibraryBookDto(googleBookId, "Title " + i, "A description of book " + i,
+                    "https://books.example/thumb/" + i, List.of("Author One", "Author Two"), i % 3 == 0, 1 + i % 4, now));
+            Map<String, Object> libraryRow = new HashMap<>();
+            libraryRow.put("googleBookId", googleBookId);
+            libraryRow.put("title", "Title " + i);
+            libraryRow.put("description", "A description of book " + i);
+            libraryRow.put("thumbnailUrl", "https://books.example/thumb/" + i);
+            libraryRow.put("authors", List.of("Author One", "Author Two"));
+            libraryRow.put("inProgress", i % 3 == 0);
+            libraryRow.put("readCount", 1 + i % 4);
+            libraryRow.put("endDate", now);
+            libraryMaps.add(libraryRow);
+        }
+    }
+
+    @Benchmark
+    public byte[] rewardsTyped() throws Exception {
+        return mapper.writeValueAsBytes(rewardDtos);
+    }
+
+    @Benchmark
+    public byte[] rewardsMaps() throws Exception {
+        return mapper.writeValueAsBytes(rewardMaps);
+    }
+
+    @Benchmark
+    public byte[] libraryTyped() throws Exception {
+        return mapper.writeValueAsBytes(libraryDtos);
+    }
+
+    @Benchmark
+    public byte[] libraryMaps() throws Exception {
+        return mapper.writeValueAsBytes(libraryMaps);
+    }
+}
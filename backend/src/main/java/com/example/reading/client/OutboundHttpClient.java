@@ -0,0 +1,45 @@
+package com.example.reading.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Shared, pooled HTTP/2-capable client for every external call. Responses are
+// handled on virtual threads, and each configured upstream gets an isolated
+// bulkhead and circuit breaker so one slow service cannot starve the others.
+@Component
+public class OutboundHttpClient {
+
+    private final OutboundProperties properties;
+    private final MeterRegistry registry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient http;
+    private final Map<String, Upstream> upstreams = new ConcurrentHashMap<>();
+
+    public OutboundHttpClient(OutboundProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(properties.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    public Upstream upstream(String name) {
+        return upstreams.computeIfAbsent(name, n -> {
+            OutboundProperties.UpstreamProperties props = properties.getUpstreams().get(n);
+            if (props == null || props.getBaseUrl() == null)
+                throw new IllegalStateException("No outbound.upstreams." + n + ".base-url configured");
+            return new Upstream(n, props, http, registry);
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.reading.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "outbound")
+public class OutboundProperties {
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    // Keyed by upstream name, e.g. "google-books", "brevo"
+    private Map<String, UpstreamProperties> upstreams = new HashMap<>();
+
+    @Data
+    public static class UpstreamProperties {
+        private String baseUrl;
+        private Duration requestTimeout = Duration.ofSeconds(5);
+        // Bulkhead: calls beyond this many in flight are rejected immediately
+        private int maxConcurrent = 20;
+        // Consecutive failures (I/O error, timeout, 5xx, 429) that open the circuit
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.reading.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// One external service behind the shared HttpClient, with its own bulkhead,
+// circuit breaker and request timeout. Outcomes are timed as outbound.requests
+// tagged by upstream and outcome.
+public class Upstream {
+
+    private final String name;
+    private final URI baseUri;
+    private final HttpClient http;
+    private final Duration requestTimeout;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker breaker;
+    private final MeterRegistry registry;
+
+    Upstream(String name, OutboundProperties.UpstreamProperties props, HttpClient http, MeterRegistry registry) {
+        this.name = name;
+        this.baseUri = URI.create(props.getBaseUrl());
+        this.http = http;
+        this.requestTimeout = props.getRequestTimeout();
+        this.bulkhead = new Semaphore(props.getMaxConcurrent());
+        this.breaker = new CircuitBreaker(props.getFailureThreshold(), props.getOpenDuration());
+        this.registry = registry;
+        Gauge.builder("outbound.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .tag("upstream", name)
+                .register(registry);
+        Gauge.builder("outbound.circuit.state", breaker, b -> b.getState().ordinal())
+                .tag("upstream", name)
+                .description("0 = closed, 1 = half open, 2 = open")
+                .register(registry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // pathAndQuery must already be encoded
+    public URI resolve(String pathAndQuery) {
+        return baseUri.resolve(pathAndQuery);
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return breaker.getState();
+    }
+
+    public CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest.Builder request) {
+        if (!bulkhead.tryAcquire()) {
+            record("rejected", 0);
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException(name + " bulkhead full"));
+        }
+        if (!breaker.tryAcquirePermission()) {
+            bulkhead.release();
+            record("rejected", 0);
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException(name + " circuit open"));
+        }
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<String>> call;
+        try {
+            call = http.sendAsync(request.timeout(requestTimeout).build(), HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            breaker.releasePermission();
+            throw e;
+        }
+        return call.whenComplete((response, error) -> {
+            bulkhead.release();
+            String outcome;
+            if (error != null) {
+                outcome = "error";
+            } else if (response.statusCode() >= 500 || response.statusCode() == 429) {
+                outcome = "server_error";
+            } else if (response.statusCode() >= 400) {
+                outcome = "client_error";
+            } else {
+                outcome = "success";
+            }
+            if (outcome.equals("error") || outcome.equals("server_error"))
+                breaker.onFailure();
+            else
+                breaker.onSuccess();
+            record(outcome, System.nanoTime() - start);
+        });
+    }
+
+    // Blocking variant; intended for virtual threads
+    public HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        try {
+            return sendAsync(request).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io)
+                throw io;
+            if (cause instanceof RuntimeException re)
+                throw re;
+            throw new IOException(cause);
+        }
+    }
+
+    private void record(String outcome, long nanos) {
+        Timer.builder("outbound.requests")
+                .tag("upstream", name)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.reading.client;
+
+// Thrown without calling the upstream when its circuit is open or its bulkhead is full
+public class UpstreamUnavailableException extends RuntimeException {
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
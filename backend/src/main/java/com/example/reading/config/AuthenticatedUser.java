@@ -0,0 +1,21 @@
+package com.example.reading.config;
+
+import com.example.reading.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.UUID;
+
+// Security principal built from verified JWT claims; never loaded from the database.
+// username is the login name the token was issued for (email for parents).
+public record AuthenticatedUser(UUID id, String username, User.UserRole role, UUID parentId) {
+
+    public boolean isParent() {
+        return role == User.UserRole.PARENT;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
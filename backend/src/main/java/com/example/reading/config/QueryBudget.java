@@ -0,0 +1,17 @@
+package com.example.reading.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Most SQL statements a handler may issue, including lazy loads during response
+// serialization but not the auth filter's token checks. Enforced by
+// QueryBudgetInterceptor; a budget that depends on page size is an N+1.
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    int value();
+}
@@ -0,0 +1,86 @@
+package com.example.reading.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Applies @QueryBudget to handlers. Over-budget requests are logged and counted as
+// request.query.budget.exceeded; with observability.query-budget.strict the
+// statement that goes over fails the request instead, so an N+1 surfaces as a 500
+// with the offending stack trace in development and CI runs.
+@Component
+public class QueryBudgetInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+    private static final String BUDGET_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".budget";
+    private static final String BASELINE_ATTRIBUTE = QueryBudgetInterceptor.class.getName() + ".baseline";
+
+    private final MeterRegistry registry;
+    private final boolean strict;
+
+    public QueryBudgetInterceptor(ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${observability.query-budget.strict:false}") boolean strict) {
+        this.registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.strict = strict;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        if (stats == null || !(handler instanceof HandlerMethod method))
+            return true;
+        QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+        if (budget == null)
+            return true;
+        request.setAttribute(BUDGET_ATTRIBUTE, budget.value());
+        request.setAttribute(BASELINE_ATTRIBUTE, stats.getStatements());
+        if (strict)
+            stats.limitStatements(budget.value());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestQueryStats stats = RequestQueryStats.current();
+        Integer budget = (Integer) request.getAttribute(BUDGET_ATTRIBUTE);
+        if (stats == null || budget == null)
+            return;
+        int used = stats.getStatements() - (Integer) request.getAttribute(BASELINE_ATTRIBUTE);
+        if (used <= budget)
+            return;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        registry.counter("request.query.budget.exceeded", "method", request.getMethod(), "uri", uri).increment();
+        log.warn("{} {} issued {} SQL statements, over its budget of {}", request.getMethod(), uri, used, budget);
+    }
+
+    @RestControllerAdvice
+    public static class ExceededHandler {
+
+        @ExceptionHandler(RequestQueryStats.QueryBudgetExceededException.class)
+        public ResponseEntity<String> handle(RequestQueryStats.QueryBudgetExceededException e) {
+            log.error("Query budget exceeded", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+}
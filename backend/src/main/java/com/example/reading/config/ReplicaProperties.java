@@ -0,0 +1,29 @@
+package com.example.reading.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReplicaProperties {
+
+    // JDBC URLs of streaming replicas of spring.datasource; none keeps every query on the primary
+    private List<String> urls = new ArrayList<>();
+
+    // Default to spring.datasource's credentials
+    private String username;
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    // After a write, a client's reads stay on the primary until a replica has replayed
+    // it, for at most this long
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    // Replicas further behind than this are left out of rotation until they catch up
+    private Duration maxLag = Duration.ofSeconds(2);
+}
@@ -0,0 +1,255 @@
+package com.example.reading.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Picks the pool for each physical connection. Read-only transactions in GET and HEAD
+// requests go round-robin to a replica that passed its last lag check; everything else
+// (writes, schedulers, Flyway) goes to the primary. Other methods never use a replica:
+// open-in-view holds a request's first connection until the request ends, so a
+// read-only lookup ahead of a write in a POST would pin the write to the replica.
+//
+// Read-your-writes works across instances through the client: each commit in a non-GET
+// request sets X-Last-Write to the time it committed, the client sends the latest value
+// back, and its reads only go to replicas whose last check shows them replayed past it.
+// A value older than read-your-writes-window (or in the future) is ignored.
+public class ReplicaRouter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    static final String PRIMARY = "primary";
+    public static final String LAST_WRITE_HEADER = "X-Last-Write";
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD");
+
+    // Caught up once it has replayed the primary's WAL position from just before the
+    // check; otherwise the lag is the age of the last replayed transaction, which
+    // overstates it after an idle spell (erring towards eviction). A server that is
+    // not in recovery, such as a local stand-in, counts as caught up.
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())::float8, 'Infinity')
+            END""";
+
+    private static final class Replica {
+        final String name;
+        final HikariDataSource pool;
+        volatile double lagSeconds = Double.NaN;
+        volatile boolean available;
+        // Epoch millis before which every primary commit has been replayed, as of the last check
+        volatile long replayedThrough;
+
+        Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+
+    private final HikariDataSource primary;
+    private final Map<String, Replica> replicas = new LinkedHashMap<>();
+    private final double maxLagSeconds;
+    private final long readYourWritesWindowMillis;
+    private final Map<String, Counter> reads = new HashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final AbstractRoutingDataSource routing;
+    // Replicas that passed the last check; none until the first one runs
+    private volatile List<Replica> inRotation = List.of();
+
+    public ReplicaRouter(HikariDataSource primary, List<HikariDataSource> replicaPools, ReplicaProperties properties,
+            MeterRegistry registry) {
+        this.primary = primary;
+        this.maxLagSeconds = properties.getMaxLag().toMillis() / 1000.0;
+        this.readYourWritesWindowMillis = properties.getReadYourWritesWindow().toMillis();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        reads.put(PRIMARY, readCounter(registry, PRIMARY));
+        for (HikariDataSource pool : replicaPools) {
+            String name = pool.getPoolName();
+            Replica replica = new Replica(name, pool);
+            replicas.put(name, replica);
+            targets.put(name, pool);
+            reads.put(name, readCounter(registry, name));
+            Gauge.builder("datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replay lag at the last check; +Inf when the check failed")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(registry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.available ? 1 : 0)
+                    .tag("replica", name)
+                    .register(registry);
+        }
+
+        routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return route();
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                return stampingCommits(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return stampingCommits(super.getConnection(username, password));
+            }
+        };
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+    }
+
+    private static Counter readCounter(MeterRegistry registry, String target) {
+        return Counter.builder("datasource.read.connections")
+                .description("Connections opened for read-only transactions in GET requests")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    // Needs a LazyConnectionDataSourceProxy in front, so the choice is made at the
+    // first statement, once the transaction's read-only flag has been set
+    public DataSource dataSource() {
+        return routing;
+    }
+
+    String route() {
+        HttpServletRequest request = RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()
+                : null;
+        if (request == null || !READ_METHODS.contains(request.getMethod())
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly())
+            return PRIMARY;
+        List<Replica> candidates = inRotation;
+        long lastWrite = lastWrite(request);
+        if (lastWrite > 0)
+            candidates = candidates.stream().filter(r -> r.replayedThrough >= lastWrite).toList();
+        String target = candidates.isEmpty()
+                ? PRIMARY
+                : candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())).name;
+        reads.get(target).increment();
+        return target;
+    }
+
+    // The client's last write within the window, or 0
+    private long lastWrite(HttpServletRequest request) {
+        String header = request.getHeader(LAST_WRITE_HEADER);
+        if (header == null)
+            return 0;
+        long lastWrite;
+        try {
+            lastWrite = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+        long age = System.currentTimeMillis() - lastWrite;
+        return age >= 0 && age < readYourWritesWindowMillis ? lastWrite : 0;
+    }
+
+    // Connections taken by non-GET requests set X-Last-Write after each commit. The
+    // handler commits before it writes the body, so the header still goes out; a
+    // later commit in the same request overwrites it.
+    private static Connection stampingCommits(Connection target) {
+        HttpServletResponse response = RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                && !READ_METHODS.contains(attributes.getRequest().getMethod())
+                ? attributes.getResponse()
+                : null;
+        if (response == null)
+            return target;
+        return (Connection) Proxy.newProxyInstance(ReplicaRouter.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if ("commit".equals(method.getName()))
+                        response.setHeader(LAST_WRITE_HEADER, Long.toString(System.currentTimeMillis()));
+                    return result;
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replicas.lag-check-interval:2s}")
+    public void checkLag() {
+        // Anything that committed before this has a commit record at or before primaryLsn
+        long checkStart = System.currentTimeMillis();
+        String primaryLsn;
+        try (Connection conn = primary.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT pg_current_wal_lsn()::text")) {
+            rs.next();
+            primaryLsn = rs.getString(1);
+        } catch (SQLException e) {
+            // Without a reference point keep the current rotation
+            log.warn("Replica lag check skipped, primary unavailable: {}", e.getMessage());
+            return;
+        }
+        List<Replica> healthy = new ArrayList<>();
+        replicas.forEach((name, replica) -> {
+            double lag;
+            try (Connection conn = replica.pool.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(LAG_SQL)) {
+                ps.setString(1, primaryLsn);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    lag = rs.getDouble(1);
+                }
+            } catch (SQLException e) {
+                log.warn("Replica {} lag check failed: {}", name, e.getMessage());
+                lag = Double.POSITIVE_INFINITY;
+            }
+            boolean available = lag <= maxLagSeconds;
+            if (available != replica.available) {
+                if (available)
+                    log.info("Replica {} in rotation (lag {}s)", name, lag);
+                else
+                    log.warn("Replica {} out of rotation (lag {}s, max {}s)", name, lag, maxLagSeconds);
+            }
+            replica.lagSeconds = lag;
+            replica.available = available;
+            if (lag == 0)
+                replica.replayedThrough = checkStart;
+            else if (Double.isFinite(lag))
+                replica.replayedThrough = Math.max(replica.replayedThrough, System.currentTimeMillis() - (long) (lag * 1000));
+            if (available)
+                healthy.add(replica);
+        });
+        inRotation = List.copyOf(healthy);
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(r -> r.pool.close());
+        primary.close();
+    }
+}
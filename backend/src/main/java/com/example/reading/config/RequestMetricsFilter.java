@@ -0,0 +1,76 @@
+package com.example.reading.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Records SQL statements and entity loads per request as request.sql.statements
+// and request.entity.loads (tagged by method and uri like http.server.requests), and
+// logs any request slower than observability.slow-request-threshold with its counts.
+// Runs ahead of the security chain so token checks are counted too.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestMetricsFilter.class);
+
+    private final MeterRegistry registry;
+    private final long slowThresholdNanos;
+
+    public RequestMetricsFilter(ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${observability.slow-request-threshold:500ms}") Duration slowThreshold) {
+        this.registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.begin();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            RequestQueryStats.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            summary("request.sql.statements", request, uri).record(stats.getStatements());
+            summary("request.entity.loads", request, uri).record(stats.getEntityLoads());
+            if (elapsed >= slowThresholdNanos) {
+                log.warn("Slow request {} {} ({}) -> {} in {} ms: {} SQL statements, {} entity loads",
+                        request.getMethod(), request.getRequestURI(), uri, response.getStatus(),
+                        TimeUnit.NANOSECONDS.toMillis(elapsed), stats.getStatements(), stats.getEntityLoads());
+            }
+        }
+    }
+
+    private DistributionSummary summary(String name, HttpServletRequest request, String uri) {
+        return DistributionSummary.builder(name)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.reading.config;
+
+// SQL statements and entity loads attributed to the request on the current thread.
+// Requests run one per (virtual) thread, so a thread-local is enough; work handed
+// to other threads (async purges, outbound calls) is not attributed.
+public final class RequestQueryStats {
+
+    public static class QueryBudgetExceededException extends RuntimeException {
+        public QueryBudgetExceededException(int budget) {
+            super("Request issued more SQL statements than its query budget of " + budget);
+        }
+    }
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int entityLoads;
+    private int statementLimit = Integer.MAX_VALUE;
+    private int budget;
+
+    private RequestQueryStats() {
+    }
+
+    public static RequestQueryStats begin() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    // Null outside a request
+    public static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    static void statementPrepared() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats == null)
+            return;
+        if (++stats.statements > stats.statementLimit) {
+            // Lifted so error handling can still reach the database
+            stats.statementLimit = Integer.MAX_VALUE;
+            throw new QueryBudgetExceededException(stats.budget);
+        }
+    }
+
+    static void entityLoaded() {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null)
+            stats.entityLoads++;
+    }
+
+    // Preparing more than budget further statements throws QueryBudgetExceededException
+    void limitStatements(int budget) {
+        this.budget = budget;
+        this.statementLimit = statements + budget;
+    }
+
+    // Statements prepared so far; a JDBC batch counts once
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+}
@@ -27,6 +27,8 @@ public class SecurityConfig {
             "https://reading-rewards.onrender.com"
         ));
         config.setAllowedHeaders(List.of("*"));
+        // Read back by the client and sent with its next requests, see ReplicaRouter
+        config.setExposedHeaders(List.of(ReplicaRouter.LAST_WRITE_HEADER));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
@@ -42,6 +44,7 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                  .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
                  .requestMatchers("/api/auth/login", "/api/auth/signup", "/api/auth/verify-email").permitAll()
+                 .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/prometheus").permitAll()
                  .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
@@ -3,22 +3,39 @@ package com.example.reading.controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.*;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.UUID;
+import com.example.reading.config.AuthenticatedUser;
+import com.example.reading.config.QueryBudget;
+import com.example.reading.service.BookCatalog;
+import com.example.reading.service.ChapterSyncService;
 import com.example.reading.service.GoogleBooksService;
+import com.example.reading.service.HistoryExportService;
+import com.example.reading.service.ReadDeletionService;
+import com.example.reading.service.RewardLedgerService;
 import com.example.reading.repo.*;
 import com.example.reading.model.*;
 import com.example.reading.dto.*;
+import com.example.reading.util.KeysetCursor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.beans.factory.annotation.*;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api")
 public class ApiController {
+    private static final int MAX_REWARDS_PAGE_SIZE = 100;
+    // Kept by the browser but revalidated on every use, so an unchanged resource
+    // costs a version lookup and a 304 instead of the query and serialization
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
     @Autowired
     GoogleBooksService googleBooksService;
@@ -31,56 +48,47 @@ public class ApiController {
     @Autowired
     BookReadRepository bookReadRepo;
     @Autowired
-    UserRepository userRepo;
-    @Autowired
     RewardRepository rewardRepo;
-
-
-    private User getCurrentUser(UserDetails userDetails) {
-        return userRepo.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-    }
+    @Autowired
+    BookReadQueries bookReadQueries;
+    @Autowired
+    VersionQueries versionQueries;
+    @Autowired
+    BookCatalog bookCatalog;
+    @Autowired
+    RewardLedgerService ledgerService;
+    @Autowired
+    ChapterSyncService chapterSyncService;
+    @Autowired
+    ReadDeletionService readDeletionService;
+    @Autowired
+    HistoryExportService historyExportService;
 
     @GetMapping("/search")
     public List<BookSummaryDto> search(@RequestParam(required = false) String title, @RequestParam(required = false) String author, @RequestParam(required = false) String isbn) {
         return googleBooksService.search(title, author, isbn);
     }
 
+    // One row per book with the user's read count, latest end date and whether a
+    // read is open, aggregated in the database. sort: title (default), recent or reads
     @GetMapping("/books")
-    public List<Map<String, Object>> getBooks(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
-        List<BookRead> bookReads = bookReadRepo.findByUserId(user.getId());
-        Map<String, Map<String, Object>> bookMap = new HashMap<>();
-        for (BookRead br : bookReads) {
-            Book book = br.getBook();
-            if (book == null)
-                continue;
-            String googleBookId = book.getGoogleBookId();
-            Map<String, Object> m = bookMap.computeIfAbsent(googleBookId, k -> {
-                Map<String, Object> map = new HashMap<>();
-                map.put("googleBookId", book.getGoogleBookId());
-                map.put("title", book.getTitle());
-                map.put("description", book.getDescription());
-                map.put("thumbnailUrl", book.getThumbnailUrl());
-                map.put("authors", book.getAuthors());
-                map.put("inProgress", Boolean.TRUE.equals(br.getInProgress()));
-                map.put("readCount", 0);
-                map.put("endDate", LocalDateTime.MIN);
-                return map;
-            });
-            m.put("readCount", (int) m.get("readCount") + 1);
-            LocalDateTime currentEndDate = (LocalDateTime) m.get("endDate");
-            LocalDateTime brEndDate = br.getEndDate();
-            if (brEndDate != null) {
-                m.put("endDate", currentEndDate.isAfter(brEndDate) ? currentEndDate : brEndDate);
-            }
-        }
-        return new ArrayList<>(bookMap.values());
+    @QueryBudget(2)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getBooks(@AuthenticationPrincipal AuthenticatedUser principal, WebRequest request,
+            @RequestParam(value = "sort", required = false, defaultValue = "title") String sort,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        if (!BookReadQueries.LIBRARY_SORTS.containsKey(sort))
+            return ResponseEntity.badRequest().body("sort must be one of " + BookReadQueries.LIBRARY_SORTS.keySet());
+        if (limit != null && limit < 1)
+            return ResponseEntity.badRequest().body("limit must be positive");
+        // The user id keeps one browser's cached copies apart across logins
+        if (request.checkNotModified("W/\"library-" + principal.id() + "-" + versionQueries.libraryVersion(principal.id()) + "\""))
+            return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(bookReadQueries.findLibrary(principal.id(), sort, limit));
     }
 
     @PostMapping("/books")
-    public Book saveBook(@RequestBody BookSummaryDto dto, @AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
+    public Book saveBook(@RequestBody BookSummaryDto dto, @AuthenticationPrincipal AuthenticatedUser principal) {
         Book b = new Book();
         b.setGoogleBookId(dto.getGoogleBookId());
         b.setTitle(dto.getTitle());
@@ -88,9 +96,10 @@ public class ApiController {
         b.setThumbnailUrl(dto.getThumbnailUrl());
         b.setAuthors(dto.getAuthors() != null ? dto.getAuthors() : new ArrayList<>());
         Book saved = bookRepo.save(b);
+        bookCatalog.invalidate(saved.getGoogleBookId());
         BookRead br = new BookRead();
         br.setGoogleBookId(saved.getGoogleBookId());
-        br.setUserId(user.getId());
+        br.setUserId(principal.id());
         br.setStartDate(java.time.LocalDateTime.now());
         bookReadRepo.save(br);
         return saved;
@@ -98,9 +107,8 @@ public class ApiController {
 
     @PostMapping("/books/{googleBookId}/finish")
     @Transactional
-    public ResponseEntity<?> finishBook(@PathVariable String googleBookId, @AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
-        List<BookRead> bookReads = bookReadRepo.findByUserId(user.getId());
+    public ResponseEntity<?> finishBook(@PathVariable String googleBookId, @AuthenticationPrincipal AuthenticatedUser principal) {
+        List<BookRead> bookReads = bookReadRepo.findByUserId(principal.id());
         boolean found = false;
         for (BookRead br : bookReads) {
             if (googleBookId.equals(br.getGoogleBookId()) && Boolean.TRUE.equals(br.getInProgress())) {
@@ -112,68 +120,119 @@ public class ApiController {
         return found ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
     }
 
+    // mode=merge (default) diffs on chapterIndex and keeps existing chapter ids;
+    // mode=replace deletes and re-inserts every chapter. Either way, removing a
+    // chapter that has been read is rejected with 409
     @PostMapping("/books/{googleBookId}/chapters")
-    public List<Chapter> saveChapters(@PathVariable String googleBookId, @RequestBody List<Chapter> chapters) {
-        chapterRepo.deleteByGoogleBookId(googleBookId);
-        for (Chapter c : chapters)
-            c.setGoogleBookId(googleBookId);
-        return chapterRepo.saveAll(chapters);
+    public ResponseEntity<?> saveChapters(@PathVariable String googleBookId, @RequestBody List<Chapter> chapters,
+            @RequestParam(value = "mode", required = false, defaultValue = "merge") String mode) {
+        Set<Integer> indexes = new HashSet<>();
+        for (Chapter c : chapters) {
+            if (c.getChapterIndex() == null || c.getName() == null || !indexes.add(c.getChapterIndex()))
+                return ResponseEntity.badRequest().body("Each chapter needs a name and a unique chapterIndex");
+        }
+        if (!"merge".equals(mode) && !"replace".equals(mode))
+            return ResponseEntity.badRequest().body("mode must be merge or replace");
+        try {
+            return ResponseEntity.ok("replace".equals(mode)
+                    ? chapterSyncService.replace(googleBookId, chapters)
+                    : chapterSyncService.merge(googleBookId, chapters));
+        } catch (ChapterSyncService.ChaptersInUseException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
     }
 
+    // Served from the book catalog; a miss loads the book and then its chapters
     @GetMapping("/books/{googleBookId}/chapters")
-    public List<Chapter> getChapters(@PathVariable String googleBookId) {
-        return chapterRepo.findByGoogleBookIdOrderByChapterIndex(googleBookId);
+    @QueryBudget(2)
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<ChapterSnapshotDto>> getChapters(@PathVariable String googleBookId, WebRequest request) {
+        BookCatalog.Entry entry = bookCatalog.get(googleBookId);
+        if (request.checkNotModified("W/\"chapters-" + (entry != null ? entry.version() : "none") + "\""))
+            return null;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(entry != null ? entry.chapters() : List.of());
     }
 
     // New: Mark a chapter as read for a specific BookRead instance
     @PostMapping("/bookreads/{bookReadId}/chapters/{chapterId}/read")
-    public ChapterRead markReadForBookRead(@PathVariable UUID bookReadId, @PathVariable UUID chapterId, @AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
+    @QueryBudget(3)
+    @Transactional
+    public ChapterRead markReadForBookRead(@PathVariable UUID bookReadId, @PathVariable UUID chapterId, @AuthenticationPrincipal AuthenticatedUser principal) {
         ChapterRead cr = new ChapterRead();
         cr.setBookReadId(bookReadId);
         cr.setChapterId(chapterId);
-        cr.setUserId(user.getId());
+        cr.setUserId(principal.id());
         cr.setCompletionDate(java.time.LocalDateTime.now());
         ChapterRead savedCr = readRepo.save(cr);
 
         // Create a Reward of type EARN for this chapter read
         Reward reward = new Reward();
         reward.setType(RewardType.EARN);
-        reward.setUserId(user.getId());
+        reward.setUserId(principal.id());
         reward.setChapterReadId(savedCr.getId());
         reward.setAmount(1.0); // Set to 1.0 or your earning logic
-        rewardRepo.save(reward);
+        ledgerService.record(reward);
 
         return savedCr;
     }
 
-    @DeleteMapping("/books/{olid}/chapters/{chapterId}/read")
-    public ResponseEntity<?> deleteRead(@PathVariable String olid, @PathVariable UUID chapterId, @AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
-        List<ChapterRead> reads = readRepo.findByUserId(user.getId()).stream()
-                .filter(r -> chapterId.equals(r.getChapterId()))
-                .collect(Collectors.toList());
-        if (reads.isEmpty())
+    // Bulk version of markReadForBookRead for catching up on a book. Chapters already
+    // read in this BookRead are skipped; returns the ChapterReads created.
+    @PostMapping("/bookreads/{bookReadId}/chapters/read")
+    @QueryBudget(7)
+    @Transactional
+    public ResponseEntity<?> markChaptersReadForBookRead(@PathVariable UUID bookReadId, @RequestBody MarkChaptersReadRequest request, @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (request.getChapterIds() == null || request.getChapterIds().isEmpty())
+            return ResponseEntity.badRequest().body("chapterIds is required");
+        Optional<BookRead> bookReadOpt = bookReadRepo.findById(bookReadId);
+        if (bookReadOpt.isEmpty() || !principal.id().equals(bookReadOpt.get().getUserId()))
             return ResponseEntity.notFound().build();
-        ChapterRead mostRecent = reads.get(0);
-        // Delete all rewards referencing this ChapterRead (to avoid constraint
-        // violation)
-        List<Reward> rewards = rewardRepo.findByUserId(user.getId()).stream()
-                .filter(r -> mostRecent.getId().equals(r.getChapterReadId()))
-                .collect(Collectors.toList());
-        rewardRepo.deleteAll(rewards);
-        readRepo.delete(mostRecent);
-        return ResponseEntity.ok().build();
+        Set<UUID> requested = new LinkedHashSet<>(request.getChapterIds());
+        BookCatalog.Entry book = bookCatalog.get(bookReadOpt.get().getGoogleBookId());
+        if (book == null || !book.chapterIds().containsAll(requested))
+            return ResponseEntity.badRequest().body("Some chapters do not belong to this book");
+        requested.removeAll(readRepo.findChapterIdsByBookReadId(bookReadId));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ChapterRead> reads = new ArrayList<>(requested.size());
+        for (UUID chapterId : requested) {
+            ChapterRead cr = new ChapterRead();
+            cr.setBookReadId(bookReadId);
+            cr.setChapterId(chapterId);
+            cr.setUserId(principal.id());
+            cr.setCompletionDate(now);
+            reads.add(cr);
+        }
+        // Ids are assigned in memory on persist; flushing here sends the chapter_reads
+        // batch ahead of the rewards that reference it
+        List<ChapterRead> saved = readRepo.saveAllAndFlush(reads);
+        List<Reward> rewards = new ArrayList<>(saved.size());
+        for (ChapterRead cr : saved) {
+            Reward reward = new Reward();
+            reward.setType(RewardType.EARN);
+            reward.setUserId(principal.id());
+            reward.setChapterReadId(cr.getId());
+            reward.setAmount(1.0);
+            rewards.add(reward);
+        }
+        ledgerService.recordAll(rewards);
+        return ResponseEntity.ok(saved);
+    }
+
+    @DeleteMapping("/books/{olid}/chapters/{chapterId}/read")
+    @Transactional
+    public ResponseEntity<?> deleteRead(@PathVariable String olid, @PathVariable UUID chapterId, @AuthenticationPrincipal AuthenticatedUser principal) {
+        return readDeletionService.deleteLatestChapterRead(principal.id(), chapterId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("/credits")
-    public Map<String, Object> credits(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
-        List<Reward> rewards = rewardRepo.findByUserId(user.getId());
-        int totalCents = rewards.stream()
-                .filter(r -> r.getType() == RewardType.EARN)
-                .mapToInt(r -> 100) // Placeholder: replace with actual amount if available
-                .sum();
+    @QueryBudget(1)
+    public Map<String, Object> credits(@AuthenticationPrincipal AuthenticatedUser principal) {
+        RewardBalance earned = ledgerService.getBalances(principal.id()).get(RewardType.EARN);
+        // Placeholder: 100 cents per EARN reward; replace with actual amount if available
+        int totalCents = earned != null ? (int) (earned.getEntryCount() * 100) : 0;
         double dollars = totalCents / 100.0;
         Map<String, Object> m = new HashMap<>();
         m.put("cents", totalCents);
@@ -182,145 +241,136 @@ public class ApiController {
     }
 
     @GetMapping("/history")
-    public List<ChapterRead> history(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
-        return readRepo.findByUserId(user.getId());
+    @QueryBudget(1)
+    @Transactional(readOnly = true)
+    public List<ChapterRead> history(@AuthenticationPrincipal AuthenticatedUser principal) {
+        return readRepo.findByUserId(principal.id());
+    }
+
+    // Full history streamed as NDJSON or CSV, oldest first. from/to are inclusive
+    // dates; every row carries a cursor that resumes the export after it. Rows are
+    // written to the response as they are read (on the request's virtual thread).
+    @GetMapping("/history/export")
+    public ResponseEntity<?> exportHistory(@AuthenticationPrincipal AuthenticatedUser principal, HttpServletResponse response,
+            @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "cursor", required = false) String cursor) throws IOException {
+        HistoryExportService.Format fmt;
+        try {
+            fmt = HistoryExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("format must be ndjson or csv");
+        }
+        KeysetCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                after = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
+            }
+        }
+        response.setContentType(fmt.contentType);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reading-history." + fmt.extension + "\"");
+        historyExportService.export(principal.id(), fmt,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                after, response.getOutputStream());
+        return null;
     }
 
     // New endpoint: get all ChapterRead for a given BookRead (per-instance
     // progress)
     @GetMapping("/bookreads/{bookReadId}/chapterreads")
+    @QueryBudget(1)
     public List<ChapterRead> getChapterReadsForBookRead(@PathVariable UUID bookReadId) {
         return readRepo.findByBookReadId(bookReadId);
     }
 
     // Returns all in-progress BookRead objects for the current user, with book info
-    // and read chapter IDs
+    // and read chapter IDs. The client fetches each book's chapters next, so any not
+    // in the book catalog are loaded into it here in one go.
     @GetMapping("/bookreads/in-progress")
-    public List<BookReadProgressDto> getInProgressBookReads(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
-        List<BookRead> bookReads = bookReadRepo.findByUserId(user.getId());
-        List<BookReadProgressDto> result = new ArrayList<>();
-        for (BookRead br : bookReads) {
-            if (!Boolean.TRUE.equals(br.getInProgress()))
-                continue;
-            Book book = br.getBook();
-            if (book == null)
-                continue;
-            // Count all BookRead instances for this user/book
-            int readCount = (int) bookReads.stream().filter(b -> b.getGoogleBookId().equals(book.getGoogleBookId())).count();
-            // Get all read chapter IDs for this BookRead
-            List<UUID> readChapterIds = readRepo.findByBookReadId(br.getId())
-                    .stream().map(cr -> cr.getChapterId()).toList();
-            result.add(new BookReadProgressDto(br, book, readCount, readChapterIds));
-        }
-        return result;
+    @QueryBudget(3)
+    @Transactional(readOnly = true)
+    public List<BookReadProgressDto> getInProgressBookReads(@AuthenticationPrincipal AuthenticatedUser principal) {
+        List<BookReadProgressDto> reads = bookReadQueries.findInProgress(principal.id());
+        bookCatalog.preload(reads.stream().map(br -> br.googleBookId).toList());
+        return reads;
     }
 
-    // Returns paginated rewards for the current user, with nested info for EARN rewards
+    // Returns paginated rewards for the current user, with nested info for EARN rewards.
+    // Pass the previous response's nextCursor as "cursor" to page by keyset instead of offset.
     @GetMapping("/rewards")
-    public Map<String, Object> getRewards(
+    @QueryBudget(2)
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getRewards(
             @RequestParam(value = "page", required = false, defaultValue = "1") int page,
             @RequestParam(value = "pageSize", required = false, defaultValue = "10") int pageSize,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
-        List<Reward> allRewards = rewardRepo.findByUserId(user.getId());
-        // Sort rewards by createdAt descending (most recent first)
-        allRewards.sort((a, b) -> {
-            if (a.getCreatedAt() == null && b.getCreatedAt() == null) return 0;
-            if (a.getCreatedAt() == null) return 1;
-            if (b.getCreatedAt() == null) return -1;
-            return b.getCreatedAt().compareTo(a.getCreatedAt());
-        });
-        int totalCount = allRewards.size();
-        int fromIndex = Math.max(0, Math.min((page - 1) * pageSize, totalCount));
-        int toIndex = Math.max(0, Math.min(fromIndex + pageSize, totalCount));
-        List<Reward> rewards = allRewards.subList(fromIndex, toIndex);
-        List<Map<String, Object>> result = new ArrayList<>();
-        for (Reward reward : rewards) {
-            Map<String, Object> m = new HashMap<>();
-            m.put("id", reward.getId());
-            m.put("type", reward.getType());
-            m.put("amount", reward.getAmount());
-            m.put("note", reward.getNote());
-            m.put("createdAt", reward.getCreatedAt());
-            // For EARN rewards, include chapter, book, and bookRead info
-            if (reward.getType() == RewardType.EARN && reward.getChapterRead() != null) {
-                ChapterRead cr = reward.getChapterRead();
-                m.put("chapterReadId", cr.getId());
-                m.put("completionDate", cr.getCompletionDate());
-                // Chapter info
-                Chapter chapter = cr.getChapter();
-                if (chapter != null) {
-                    Map<String, Object> chapterMap = new HashMap<>();
-                    chapterMap.put("id", chapter.getId());
-                    chapterMap.put("name", chapter.getName());
-                    chapterMap.put("chapterIndex", chapter.getChapterIndex());
-                    chapterMap.put("bookGoogleBookId", chapter.getGoogleBookId());
-                    chapterMap.put("createdAt", chapter.getCreatedAt());
-                    chapterMap.put("updatedAt", chapter.getUpdatedAt());
-                    m.put("chapter", chapterMap);
-                }
-                // BookRead info
-                BookRead bookRead = cr.getBookRead();
-                if (bookRead != null) {
-                    Map<String, Object> bookReadMap = new HashMap<>();
-                    bookReadMap.put("id", bookRead.getId());
-                    bookReadMap.put("startDate", bookRead.getStartDate());
-                    bookReadMap.put("endDate", bookRead.getEndDate());
-                    bookReadMap.put("inProgress", bookRead.getInProgress());
-                    // Book info
-                    Book book = bookRead.getBook();
-                    if (book != null) {
-                        Map<String, Object> bookMap = new HashMap<>();
-                        bookMap.put("googleBookId", book.getGoogleBookId());
-                        bookMap.put("title", book.getTitle());
-                        bookMap.put("authors", book.getAuthors());
-                        bookReadMap.put("book", bookMap);
-                    }
-                    m.put("bookRead", bookReadMap);
-                }
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @AuthenticationPrincipal AuthenticatedUser principal) {
+        int size = Math.max(1, Math.min(pageSize, MAX_REWARDS_PAGE_SIZE));
+        List<RewardEntryDto> rewards;
+        if (cursor != null && !cursor.isEmpty()) {
+            KeysetCursor after;
+            try {
+                after = KeysetCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
             }
-            result.add(m);
+            rewards = rewardRepo.findEntriesByUserIdBefore(principal.id(), after.timestamp(), after.id(), Limit.of(size));
+        } else {
+            rewards = rewardRepo.findEntriesByUserId(principal.id(), PageRequest.of(Math.max(page, 1) - 1, size));
+        }
+        long totalCount = ledgerService.getBalances(principal.id()).values().stream()
+                .mapToLong(RewardBalance::getEntryCount)
+                .sum();
+        String nextCursor = null;
+        if (rewards.size() == size) {
+            RewardEntryDto last = rewards.get(rewards.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
         }
-        Map<String, Object> response = new HashMap<>();
-        response.put("rewards", result);
-        response.put("totalCount", totalCount);
-        return response;
+        return ResponseEntity.ok(new RewardPageDto(rewards, totalCount, nextCursor));
     }
 
     // Returns a summary of rewards for the current user
     @GetMapping("/rewards/summary")
-    public Map<String, Object> getRewardsSummary(@AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
-        Double earned = rewardRepo.getTotalEarnedByUserId(user.getId());
-        Double paidOut = rewardRepo.getTotalPaidOutByUserId(user.getId());
-        Double spent = rewardRepo.getTotalSpentByUserId(user.getId());
-        double totalEarned = earned != null ? earned : 0.0;
-        double totalPaidOut = paidOut != null ? paidOut : 0.0;
-        double totalSpent = spent != null ? spent : 0.0;
+    @QueryBudget(2)
+    @Transactional(readOnly = true)
+    public ResponseEntity<Map<String, Object>> getRewardsSummary(@AuthenticationPrincipal AuthenticatedUser principal,
+            WebRequest request) {
+        if (request.checkNotModified("W/\"rewards-summary-" + principal.id() + "-" + versionQueries.userVersion(principal.id()) + "\""))
+            return null;
+        Map<RewardType, RewardBalance> balances = ledgerService.getBalances(principal.id());
+        RewardBalance earned = balances.get(RewardType.EARN);
+        RewardBalance paidOut = balances.get(RewardType.PAYOUT);
+        RewardBalance spent = balances.get(RewardType.SPEND);
+        double totalEarned = earned != null ? earned.getTotal() : 0.0;
+        double totalPaidOut = paidOut != null ? paidOut.getTotal() : 0.0;
+        double totalSpent = spent != null ? spent.getTotal() : 0.0;
         double currentBalance = totalEarned - totalPaidOut - totalSpent;
         Map<String, Object> m = new HashMap<>();
         m.put("totalEarned", totalEarned);
         m.put("totalPaidOut", totalPaidOut);
         m.put("totalSpent", totalSpent);
         m.put("currentBalance", currentBalance);
-        return m;
+        return ResponseEntity.ok().cacheControl(REVALIDATE).body(m);
     }
 
     // Endpoint to spend rewards (creates a SPEND reward)
     @PostMapping("/rewards/spend")
-    public ResponseEntity<?> spendReward(@RequestParam double amount, @RequestParam String note, @AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
+    @Transactional
+    public ResponseEntity<?> spendReward(@RequestParam double amount, @RequestParam String note, @AuthenticationPrincipal AuthenticatedUser principal) {
         if (amount <= 0) {
             return ResponseEntity.badRequest().body("Amount must be positive");
         }
         Reward reward = new Reward();
         reward.setType(RewardType.SPEND);
-        reward.setUserId(user.getId());
+        reward.setUserId(principal.id());
         reward.setAmount(amount);
         reward.setNote(note);
-        rewardRepo.save(reward);
+        ledgerService.record(reward);
         return ResponseEntity.ok().build();
     }
 
@@ -336,20 +386,19 @@ public class ApiController {
             return ResponseEntity.badRequest().build();
         chapter.setName(newName.trim());
         chapterRepo.save(chapter);
+        bookCatalog.invalidate(chapter.getGoogleBookId());
         return ResponseEntity.ok(chapter);
     }
 
     // Create a new BookRead for an existing Book (for reread)
     @PostMapping("/books/{googleBookId}/reread")
-    public ResponseEntity<BookRead> rereadBook(@PathVariable String googleBookId, @AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
-        Optional<Book> bookOpt = bookRepo.findById(googleBookId);
-        if (bookOpt.isEmpty()) {
+    public ResponseEntity<BookRead> rereadBook(@PathVariable String googleBookId, @AuthenticationPrincipal AuthenticatedUser principal) {
+        if (bookCatalog.book(googleBookId) == null) {
             return ResponseEntity.notFound().build();
         }
         BookRead br = new BookRead();
         br.setGoogleBookId(googleBookId);
-        br.setUserId(user.getId());
+        br.setUserId(principal.id());
         br.setStartDate(java.time.LocalDateTime.now());
         BookRead saved = bookReadRepo.save(br);
         return ResponseEntity.ok(saved);
@@ -357,23 +406,13 @@ public class ApiController {
     // Delete a BookRead and all associated ChapterReads and Rewards for the current user
     @DeleteMapping("/bookreads/{bookReadId}")
     @Transactional
-    public ResponseEntity<?> deleteBookRead(@PathVariable UUID bookReadId, @AuthenticationPrincipal UserDetails userDetails) {
-        User user = getCurrentUser(userDetails);
+    public ResponseEntity<?> deleteBookRead(@PathVariable UUID bookReadId, @AuthenticationPrincipal AuthenticatedUser principal) {
         Optional<BookRead> bookReadOpt = bookReadRepo.findById(bookReadId);
-        if (bookReadOpt.isEmpty() || !user.getId().equals(bookReadOpt.get().getUserId())) {
+        if (bookReadOpt.isEmpty() || !principal.id().equals(bookReadOpt.get().getUserId())) {
             return ResponseEntity.notFound().build();
         }
-        // Delete all ChapterReads for this BookRead
-        List<ChapterRead> chapterReads = readRepo.findByBookReadId(bookReadId);
-        for (ChapterRead cr : chapterReads) {
-            // Delete all rewards referencing this ChapterRead
-            List<Reward> rewards = rewardRepo.findByUserIdAndChapterRead(user.getId(), cr);
-            rewardRepo.deleteAll(rewards);
-        }
-        readRepo.deleteAll(chapterReads);
-        // Optionally, delete rewards not tied to chapterReads (if any)
-        // Finally, delete the BookRead
-        bookReadRepo.deleteById(bookReadId);
-        return ResponseEntity.ok().build();
+        // Large book reads are purged in the background; 202 tells the client so
+        ReadDeletionResultDto result = readDeletionService.deleteBookRead(bookReadId);
+        return result.isPending() ? ResponseEntity.accepted().body(result) : ResponseEntity.ok(result);
     }
 }
@@ -2,6 +2,7 @@ package com.example.reading.controller;
 
 import com.example.reading.model.User;
 import com.example.reading.repo.UserRepository;
+import com.example.reading.service.EmailOutboxService;
 import com.example.reading.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +10,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Value;
@@ -26,7 +28,7 @@ public class AuthController {
     @Value("${frontend.url}")
     private String frontendUrl;
     @Autowired
-    private com.example.reading.service.BrevoEmailService brevoEmailService;
+    private EmailOutboxService emailOutboxService;
     @Autowired
     private AuthenticationManager authenticationManager;
     @Autowired
@@ -37,6 +39,7 @@ public class AuthController {
     private PasswordEncoder passwordEncoder;
 
     @PostMapping("/signup")
+    @Transactional
     public ResponseEntity<?> signup(@RequestBody Map<String, String> body) {
         String email = body.get("email");
         String password = body.get("password");
@@ -59,19 +62,17 @@ public class AuthController {
         user.setStatus("UNVERIFIED");
         user.setVerificationToken(verificationToken);
         userRepository.save(user);
-        // Send verification email using Brevo API
+        // Verification email is delivered by the outbox dispatcher once this commits
         String subject = "Verify your Reading Rewards account";
         String htmlContent = "Welcome! Please verify your account by clicking: " +
             "<a href='" + frontendUrl + "/verify-email?token=" + verificationToken + "'>Verify Account</a>";
-        boolean sent = brevoEmailService.sendEmail(email, subject, htmlContent);
-        if (!sent) {
-            log.warn("Signup created user but verification email failed to send for {}", email);
-            return ResponseEntity.accepted().body("Signup successful, but we could not send verification email right now. Please try again shortly.");
-        }
+        emailOutboxService.enqueue(email, subject, htmlContent);
         return ResponseEntity.ok("Signup successful. Please check your email to verify your account.");
     }
 
+    // A write behind a GET: the read-write transaction keeps it on the primary
     @GetMapping("/verify-email")
+    @Transactional
     public ResponseEntity<?> verifyEmail(@RequestParam("token") String token) {
         User user = userRepository.findByVerificationToken(token).orElse(null);
         if (user == null) {
@@ -100,7 +101,7 @@ public class AuthController {
             if (user.getRole() == User.UserRole.PARENT && (user.getStatus() == null || !user.getStatus().equals("VERIFIED"))) {
                 return ResponseEntity.status(403).body("Parent account not verified. Please check your email.");
             }
-            String token = jwtUtil.generateToken(username);
+            String token = jwtUtil.generateToken(username, user);
             Map<String, Object> resp = new HashMap<>();
             resp.put("token", token);
             resp.put("user", user);
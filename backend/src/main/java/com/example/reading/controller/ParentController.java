@@ -1,13 +1,21 @@
 package com.example.reading.controller;
 
+import com.example.reading.config.AuthenticatedUser;
+import com.example.reading.config.QueryBudget;
 import com.example.reading.dto.ResetChildPasswordRequest;
 import com.example.reading.model.User;
+import com.example.reading.repo.UserQueries;
 import com.example.reading.repo.UserRepository;
+import com.example.reading.service.TokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,19 +27,19 @@ public class ParentController {
     private UserRepository userRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    @Autowired
+    private UserQueries userQueries;
 
     // List all kids for the authenticated parent
     @GetMapping("/kids")
-    public ResponseEntity<?> getKids(@AuthenticationPrincipal org.springframework.security.core.userdetails.User principal) {
-        System.out.println("[DEBUG] principal username: " + (principal != null ? principal.getUsername() : "null"));
-        // For parents, principal.getUsername() is their email, so look up by email
-        User parent = userRepository.findByEmail(principal.getUsername()).orElse(null);
-        System.out.println("[DEBUG] parent found: " + (parent != null ? parent.getUsername() : "null") + ", role: " + (parent != null ? parent.getRole() : "null"));
-        if (parent == null || parent.getRole() != User.UserRole.PARENT) {
-            System.out.println("[DEBUG] Not authorized: parent is null or not a parent");
+    @QueryBudget(1)
+    public ResponseEntity<?> getKids(@AuthenticationPrincipal AuthenticatedUser principal) {
+        if (!principal.isParent()) {
             return ResponseEntity.status(403).body("Not authorized");
         }
-        List<User> kids = parent.getChildren();
+        List<User> kids = userRepository.findByParentId(principal.id());
         // Only return id, firstName, username for each kid
         List<Map<String, Object>> result = kids.stream().map(kid -> {
             Map<String, Object> m = new HashMap<>();
@@ -43,15 +51,22 @@ public class ParentController {
         return ResponseEntity.ok(result);
     }
 
+    // Balance, books in progress, chapters read since Monday and last activity for
+    // every kid of the authenticated parent, in one query
+    @GetMapping("/dashboard")
+    @QueryBudget(1)
+    public ResponseEntity<?> getDashboard(@AuthenticationPrincipal AuthenticatedUser principal) {
+        if (!principal.isParent()) {
+            return ResponseEntity.status(403).body("Not authorized");
+        }
+        LocalDateTime weekStart = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+        return ResponseEntity.ok(userQueries.findChildDashboards(principal.id(), weekStart));
+    }
+
     // Add a new kid for the authenticated parent
     @PostMapping("/kids")
-    public ResponseEntity<?> addKid(@AuthenticationPrincipal org.springframework.security.core.userdetails.User principal, @RequestBody Map<String, String> body) {
-        System.out.println("[DEBUG] principal username: " + (principal != null ? principal.getUsername() : "null"));
-        // For parents, principal.getUsername() is their email, so look up by email
-        User parent = userRepository.findByEmail(principal.getUsername()).orElse(null);
-        System.out.println("[DEBUG] parent found: " + (parent != null ? parent.getUsername() : "null") + ", role: " + (parent != null ? parent.getRole() : "null"));
-        if (parent == null || parent.getRole() != User.UserRole.PARENT) {
-            System.out.println("[DEBUG] Not authorized: parent is null or not a parent");
+    public ResponseEntity<?> addKid(@AuthenticationPrincipal AuthenticatedUser principal, @RequestBody Map<String, String> body) {
+        if (!principal.isParent()) {
             return ResponseEntity.status(403).body("Not authorized");
         }
         String username = body.get("username");
@@ -69,28 +84,30 @@ public class ParentController {
         kid.setPassword(passwordEncoder.encode(password));
         kid.setRole(User.UserRole.CHILD);
         kid.setStatus("VERIFIED");
-        kid.setParentId(parent.getId());
+        kid.setParentId(principal.id());
         userRepository.save(kid);
         return ResponseEntity.ok("Child account created");
     }
 
     // Allow parent to reset a child's password
     @PostMapping("/reset-child-password")
-    public ResponseEntity<?> resetChildPassword(@AuthenticationPrincipal org.springframework.security.core.userdetails.User principal, @RequestBody ResetChildPasswordRequest req) {
+    public ResponseEntity<?> resetChildPassword(@AuthenticationPrincipal AuthenticatedUser principal, @RequestBody ResetChildPasswordRequest req) {
         if (principal == null) {
             return ResponseEntity.status(401).body("Unauthorized");
         }
-        User parent = userRepository.findByEmail(principal.getUsername()).orElse(null);
-        if (parent == null || parent.getRole() != User.UserRole.PARENT) {
+        if (!principal.isParent()) {
             return ResponseEntity.status(403).body("Not authorized");
         }
         // Find the child by username and ensure they belong to this parent
         User child = userRepository.findByUsername(req.getChildUsername()).orElse(null);
-        if (child == null || child.getParentId() == null || !child.getParentId().equals(parent.getId())) {
+        if (child == null || child.getParentId() == null || !child.getParentId().equals(principal.id())) {
             return ResponseEntity.status(404).body("Child not found or not your child");
         }
         child.setPassword(passwordEncoder.encode(req.getNewPassword()));
+        // Sign the child out everywhere: tokens issued before now stop validating
+        child.setCredentialsChangedAt(LocalDateTime.now());
         userRepository.save(child);
+        tokenRevocationService.evict(child.getId());
         return ResponseEntity.ok("Child password reset successfully");
     }
 
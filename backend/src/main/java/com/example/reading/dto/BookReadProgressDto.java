@@ -27,4 +27,17 @@ public class BookReadProgressDto {
         this.description = book.getDescription();
         this.thumbnailUrl = book.getThumbnailUrl();
     }
+
+    public BookReadProgressDto(UUID id, String googleBookId, String title, List<String> authors, boolean inProgress,
+            int readCount, List<UUID> readChapterIds, String description, String thumbnailUrl) {
+        this.id = id;
+        this.googleBookId = googleBookId;
+        this.title = title;
+        this.authors = authors;
+        this.inProgress = inProgress;
+        this.readCount = readCount;
+        this.readChapterIds = readChapterIds;
+        this.description = description;
+        this.thumbnailUrl = thumbnailUrl;
+    }
 }
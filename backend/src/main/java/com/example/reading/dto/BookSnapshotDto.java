@@ -0,0 +1,20 @@
+package com.example.reading.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Immutable copy of a books row as cached by BookCatalog; serializes like the Book entity
+public record BookSnapshotDto(
+        String googleBookId,
+        String title,
+        String description,
+        String thumbnailUrl,
+        String authorsString,
+        List<String> authors,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+
+    public BookSnapshotDto {
+        authors = authors != null ? List.copyOf(authors) : null;
+    }
+}
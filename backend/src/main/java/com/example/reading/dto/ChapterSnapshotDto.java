@@ -0,0 +1,16 @@
+package com.example.reading.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Immutable copy of a chapters row with its book, as cached by BookCatalog; serializes
+// like the Chapter entity with its book loaded
+public record ChapterSnapshotDto(
+        UUID id,
+        String googleBookId,
+        BookSnapshotDto book,
+        String name,
+        Integer chapterIndex,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
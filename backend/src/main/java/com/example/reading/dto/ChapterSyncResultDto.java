@@ -0,0 +1,22 @@
+package com.example.reading.dto;
+
+import com.example.reading.model.Chapter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterSyncResultDto {
+
+    private int inserted;
+    private int updated;
+    private int deleted;
+    private int unchanged;
+    // The book's chapters after the save, ordered by chapterIndex
+    private List<Chapter> chapters;
+
+}
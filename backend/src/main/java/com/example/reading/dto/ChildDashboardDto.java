@@ -0,0 +1,20 @@
+package com.example.reading.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// One child's row on the parent dashboard. Balances follow /rewards/summary:
+// currentBalance = totalEarned - totalPaidOut - totalSpent.
+public record ChildDashboardDto(
+        UUID id,
+        String firstName,
+        String username,
+        double totalEarned,
+        double totalPaidOut,
+        double totalSpent,
+        double currentBalance,
+        List<String> booksInProgress,
+        int chaptersReadThisWeek,
+        LocalDateTime lastActivity) {
+}
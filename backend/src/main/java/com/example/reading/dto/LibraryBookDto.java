@@ -0,0 +1,17 @@
+package com.example.reading.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// One row per book the user has ever started. endDate is the latest finished read
+// (null if none); inProgress is true if any read of the book is still open.
+public record LibraryBookDto(
+        String googleBookId,
+        String title,
+        String description,
+        String thumbnailUrl,
+        List<String> authors,
+        boolean inProgress,
+        int readCount,
+        LocalDateTime endDate) {
+}
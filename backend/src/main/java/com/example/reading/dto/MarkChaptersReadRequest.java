@@ -0,0 +1,15 @@
+package com.example.reading.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+public class MarkChaptersReadRequest {
+
+    private List<UUID> chapterIds;
+
+}
@@ -0,0 +1,18 @@
+package com.example.reading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadDeletionResultDto {
+
+    private int chapterReadsDeleted;
+    private int rewardsDeleted;
+    // True when the deletion was handed to a background purge; the counts are
+    // then what is queued rather than what has been deleted so far
+    private boolean pending;
+
+}
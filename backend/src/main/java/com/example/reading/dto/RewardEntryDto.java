@@ -0,0 +1,92 @@
+package com.example.reading.dto;
+
+import com.example.reading.model.Book;
+import com.example.reading.model.RewardType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// One row of GET /api/rewards. Built directly by the fetch-joined JPQL projection
+// in RewardRepository; the chapter/bookRead fields are only present for EARN rewards.
+@Data
+@NoArgsConstructor
+public class RewardEntryDto {
+
+    private UUID id;
+    private RewardType type;
+    private Double amount;
+    private String note;
+    private LocalDateTime createdAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UUID chapterReadId;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private LocalDateTime completionDate;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ChapterInfo chapter;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private BookReadInfo bookRead;
+
+    public RewardEntryDto(UUID id, RewardType type, Double amount, String note, LocalDateTime createdAt,
+            UUID chapterReadId, LocalDateTime completionDate,
+            UUID chapterId, String chapterName, Integer chapterIndex, String chapterGoogleBookId,
+            LocalDateTime chapterCreatedAt, LocalDateTime chapterUpdatedAt,
+            UUID bookReadId, LocalDateTime startDate, LocalDateTime endDate, Boolean inProgress,
+            String googleBookId, String title, String authors) {
+        this.id = id;
+        this.type = type;
+        this.amount = amount;
+        this.note = note;
+        this.createdAt = createdAt;
+        if (type != RewardType.EARN || chapterReadId == null)
+            return;
+        this.chapterReadId = chapterReadId;
+        this.completionDate = completionDate;
+        if (chapterId != null) {
+            this.chapter = new ChapterInfo(chapterId, chapterName, chapterIndex, chapterGoogleBookId,
+                    chapterCreatedAt, chapterUpdatedAt);
+        }
+        if (bookReadId != null) {
+            BookInfo book = googleBookId != null ? new BookInfo(googleBookId, title, Book.splitAuthors(authors)) : null;
+            this.bookRead = new BookReadInfo(bookReadId, startDate, endDate, inProgress, book);
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ChapterInfo {
+        private UUID id;
+        private String name;
+        private Integer chapterIndex;
+        private String bookGoogleBookId;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BookReadInfo {
+        private UUID id;
+        private LocalDateTime startDate;
+        private LocalDateTime endDate;
+        private Boolean inProgress;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private BookInfo book;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BookInfo {
+        private String googleBookId;
+        private String title;
+        private List<String> authors;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.reading.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RewardPageDto {
+
+    private List<RewardEntryDto> rewards;
+    private long totalCount;
+    // Opaque (createdAt, id) keyset cursor for the page after this one; null on the last page
+    private String nextCursor;
+
+}
@@ -61,13 +61,21 @@ public class Book {
     // Expose authors as List<String> in Java, store as comma-separated string in DB
     public List<String> getAuthors() {
         if (authors == null && authorsString != null && !authorsString.isEmpty()) {
-            authors = Arrays.stream(authorsString.split(","))
-                    .map(String::trim)
-                    .collect(Collectors.toList());
+            authors = splitAuthors(authorsString);
         }
         return authors;
     }
 
+    // Parses the stored comma-separated form; also used by projections that
+    // select the authors column directly
+    public static List<String> splitAuthors(String authorsString) {
+        if (authorsString == null || authorsString.isEmpty())
+            return null;
+        return Arrays.stream(authorsString.split(","))
+                .map(String::trim)
+                .collect(Collectors.toList());
+    }
+
     public void setAuthors(List<String> authors) {
         this.authors = authors;
         if (authors != null) {
@@ -84,13 +92,4 @@ public class Book {
             this.authorsString = String.join(", ", authors);
         }
     }
-
-    @PostLoad
-    private void syncAuthorsFromString() {
-        if (authorsString != null && !authorsString.isEmpty()) {
-            authors = Arrays.stream(authorsString.split(","))
-                    .map(String::trim)
-                    .collect(Collectors.toList());
-        }
-    }
 }
\ No newline at end of file
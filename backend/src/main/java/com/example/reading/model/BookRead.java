@@ -20,7 +20,7 @@ import java.util.UUID;
 public class BookRead {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @Column(name = "google_book_id", nullable = false, length = 50)
@@ -22,7 +22,7 @@ import java.util.UUID;
 public class Chapter {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @Column(name = "google_book_id", nullable = false, length = 50)
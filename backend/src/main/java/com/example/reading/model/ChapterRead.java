@@ -19,7 +19,7 @@ import java.util.UUID;
 public class ChapterRead {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @Column(name = "book_read_id", nullable = false)
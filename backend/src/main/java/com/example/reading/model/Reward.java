@@ -19,7 +19,7 @@ import java.util.UUID;
 public class Reward {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,47 @@
+package com.example.reading.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Running total of a user's rewards of one type. Rows are only written through
+// RewardBalanceRepository.applyDelta and the reconcile queries, never via save().
+@Entity
+@Table(name = "reward_balances")
+@IdClass(RewardBalance.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RewardBalance {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private RewardType type;
+
+    @Column(nullable = false)
+    private Double total;
+
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID userId;
+        private RewardType type;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.reading.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -21,7 +22,7 @@ import java.util.UUID;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     private UUID id;
 
     @Enumerated(EnumType.STRING)
@@ -59,6 +60,11 @@ public class User {
     @Column(name = "verification_token", length = 100)
     private String verificationToken;
 
+    // JWTs issued before this are no longer accepted
+    @Column(name = "credentials_changed_at")
+    @JsonIgnore
+    private LocalDateTime credentialsChangedAt;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
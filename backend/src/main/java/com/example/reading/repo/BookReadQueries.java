@@ -0,0 +1,109 @@
+package com.example.reading.repo;
+
+import com.example.reading.dto.BookReadProgressDto;
+import com.example.reading.dto.LibraryBookDto;
+import com.example.reading.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Aggregate read-side queries over book_reads that don't map onto an entity
+@Repository
+public class BookReadQueries {
+
+    private static final String IN_PROGRESS_SQL = """
+            SELECT br.id, b.google_book_id, b.title, b.authors, b.description, b.thumbnail_url,
+                   rc.read_count,
+                   COALESCE(array_agg(cr.chapter_id ORDER BY cr.completion_date)
+                            FILTER (WHERE cr.chapter_id IS NOT NULL), '{}') AS read_chapter_ids
+            FROM book_reads br
+            JOIN books b ON b.google_book_id = br.google_book_id
+            CROSS JOIN LATERAL (
+                SELECT COUNT(*) AS read_count FROM book_reads x
+                WHERE x.user_id = br.user_id AND x.google_book_id = br.google_book_id
+            ) rc
+            LEFT JOIN chapter_reads cr ON cr.book_read_id = br.id
+            WHERE br.user_id = :userId AND br.in_progress
+            GROUP BY br.id, b.google_book_id, rc.read_count
+            ORDER BY br.start_date, br.id
+            """;
+
+    // GROUP BY the books primary key lets the other book columns be selected as-is
+    private static final String LIBRARY_SQL = """
+            SELECT b.google_book_id, b.title, b.description, b.thumbnail_url, b.authors,
+                   bool_or(br.in_progress) AS in_progress,
+                   COUNT(*) AS read_count,
+                   MAX(br.end_date) AS end_date
+            FROM book_reads br
+            JOIN books b ON b.google_book_id = br.google_book_id
+            WHERE br.user_id = :userId
+            GROUP BY b.google_book_id
+            ORDER BY %s
+            LIMIT :limit
+            """;
+
+    // Sort keys accepted by findLibrary, mapped to their ORDER BY clause
+    public static final Map<String, String> LIBRARY_SORTS = Map.of(
+            "title", "lower(b.title), b.google_book_id",
+            "recent", "MAX(COALESCE(br.end_date, br.start_date)) DESC, b.google_book_id",
+            "reads", "COUNT(*) DESC, lower(b.title), b.google_book_id");
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    // The user's library aggregated per book. sort must be a LIBRARY_SORTS key;
+    // a null limit returns every book.
+    public List<LibraryBookDto> findLibrary(UUID userId, String sort, Integer limit) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("userId", userId);
+        params.put("limit", limit);
+        return jdbc.query(LIBRARY_SQL.formatted(LIBRARY_SORTS.get(sort)), params, (rs, i) -> {
+            Timestamp endDate = rs.getTimestamp("end_date");
+            return new LibraryBookDto(
+                    rs.getString("google_book_id"),
+                    rs.getString("title"),
+                    rs.getString("description"),
+                    rs.getString("thumbnail_url"),
+                    Book.splitAuthors(rs.getString("authors")),
+                    rs.getBoolean("in_progress"),
+                    rs.getInt("read_count"),
+                    endDate != null ? endDate.toLocalDateTime() : null);
+        });
+    }
+
+    // In-progress book reads with book info, the user's read count for the book,
+    // and the chapters completed in that read
+    public List<BookReadProgressDto> findInProgress(UUID userId) {
+        return jdbc.query(IN_PROGRESS_SQL, Map.of("userId", userId), (rs, i) -> new BookReadProgressDto(
+                rs.getObject("id", UUID.class),
+                rs.getString("google_book_id"),
+                rs.getString("title"),
+                Book.splitAuthors(rs.getString("authors")),
+                true,
+                rs.getInt("read_count"),
+                uuidList(rs, "read_chapter_ids"),
+                rs.getString("description"),
+                rs.getString("thumbnail_url")));
+    }
+
+    private static List<UUID> uuidList(ResultSet rs, String column) throws SQLException {
+        Array array = rs.getArray(column);
+        if (array == null)
+            return List.of();
+        try {
+            return Arrays.asList((UUID[]) array.getArray());
+        } finally {
+            array.free();
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.reading.repo;
 
 import com.example.reading.model.Book;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.*;
 
+import java.util.List;
+
 public interface BookRepository extends JpaRepository<Book, String> {
+    // Patterns are lower-case LIKE patterns with '!' as the escape character;
+    // pass "%" to leave a field unconstrained
+    @Query("SELECT b FROM Book b WHERE LOWER(b.title) LIKE :titlePattern ESCAPE '!' " +
+            "AND LOWER(b.authorsString) LIKE :authorPattern ESCAPE '!' ORDER BY b.title")
+    List<Book> searchByTitleAndAuthor(String titlePattern, String authorPattern, Limit limit);
 }
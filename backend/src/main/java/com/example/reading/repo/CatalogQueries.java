@@ -0,0 +1,74 @@
+package com.example.reading.repo;
+
+import com.example.reading.dto.BookSnapshotDto;
+import com.example.reading.dto.ChapterSnapshotDto;
+import com.example.reading.model.Book;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Bulk loads of books and their chapter lists for BookCatalog, one statement each
+// however many books are asked for
+@Repository
+public class CatalogQueries {
+
+    private static final String BOOKS_SQL = """
+            SELECT b.google_book_id, b.title, b.description, b.thumbnail_url, b.authors, b.created_at, b.updated_at
+            FROM books b
+            WHERE b.google_book_id IN (:googleBookIds)
+            """;
+
+    private static final String CHAPTERS_SQL = """
+            SELECT c.id, c.google_book_id, c.name, c.chapter_index, c.created_at, c.updated_at
+            FROM chapters c
+            WHERE c.google_book_id IN (:googleBookIds)
+            ORDER BY c.google_book_id, c.chapter_index
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    // Books that exist, keyed by id
+    public Map<String, BookSnapshotDto> findBooks(Collection<String> googleBookIds) {
+        Map<String, BookSnapshotDto> books = new HashMap<>();
+        jdbc.query(BOOKS_SQL, Map.of("googleBookIds", googleBookIds), rs -> {
+            BookSnapshotDto book = new BookSnapshotDto(
+                    rs.getString("google_book_id"),
+                    rs.getString("title"),
+                    rs.getString("description"),
+                    rs.getString("thumbnail_url"),
+                    rs.getString("authors"),
+                    Book.splitAuthors(rs.getString("authors")),
+                    rs.getObject("created_at", LocalDateTime.class),
+                    rs.getObject("updated_at", LocalDateTime.class));
+            books.put(book.googleBookId(), book);
+        });
+        return books;
+    }
+
+    // Chapter lists in chapter_index order for each of the given books; books without
+    // chapters are left out
+    public Map<String, List<ChapterSnapshotDto>> findChapters(Map<String, BookSnapshotDto> books) {
+        Map<String, List<ChapterSnapshotDto>> chapters = new HashMap<>();
+        jdbc.query(CHAPTERS_SQL, Map.of("googleBookIds", books.keySet()), rs -> {
+            String googleBookId = rs.getString("google_book_id");
+            chapters.computeIfAbsent(googleBookId, k -> new ArrayList<>()).add(new ChapterSnapshotDto(
+                    rs.getObject("id", UUID.class),
+                    googleBookId,
+                    books.get(googleBookId),
+                    rs.getString("name"),
+                    rs.getInt("chapter_index"),
+                    rs.getObject("created_at", LocalDateTime.class),
+                    rs.getObject("updated_at", LocalDateTime.class)));
+        });
+        return chapters;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.reading.repo;
+
+import com.example.reading.model.Chapter;
+import com.example.reading.util.UuidV7;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+// Set-based writes to chapters keyed on (google_book_id, chapter_index)
+@Repository
+public class ChapterQueries {
+
+    // Conflicting rows keep their id (so chapter_reads survive) and are only
+    // touched when the name actually differs
+    private static final String UPSERT_SQL = """
+            INSERT INTO chapters (id, google_book_id, name, chapter_index)
+            VALUES (:id, :googleBookId, :name, :chapterIndex)
+            ON CONFLICT (google_book_id, chapter_index) DO UPDATE
+            SET name = EXCLUDED.name, updated_at = now()
+            WHERE chapters.name IS DISTINCT FROM EXCLUDED.name
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    public void upsert(String googleBookId, List<Chapter> chapters) {
+        if (chapters.isEmpty())
+            return;
+        SqlParameterSource[] batch = chapters.stream()
+                .map(c -> new MapSqlParameterSource()
+                        .addValue("id", c.getId() != null ? c.getId() : UuidV7.next())
+                        .addValue("googleBookId", googleBookId)
+                        .addValue("name", c.getName())
+                        .addValue("chapterIndex", c.getChapterIndex()))
+                .toArray(SqlParameterSource[]::new);
+        jdbc.batchUpdate(UPSERT_SQL, batch);
+    }
+
+    // Chapter indexes among the given ones that at least one reader has completed
+    public List<Integer> findReadChapterIndexes(String googleBookId, Collection<Integer> chapterIndexes) {
+        if (chapterIndexes.isEmpty())
+            return List.of();
+        return jdbc.queryForList("""
+                SELECT c.chapter_index FROM chapters c
+                WHERE c.google_book_id = :googleBookId AND c.chapter_index IN (:indexes)
+                AND EXISTS (SELECT 1 FROM chapter_reads cr WHERE cr.chapter_id = c.id)
+                ORDER BY c.chapter_index
+                """, Map.of("googleBookId", googleBookId, "indexes", chapterIndexes), Integer.class);
+    }
+
+    public int deleteByChapterIndexes(String googleBookId, Collection<Integer> chapterIndexes) {
+        if (chapterIndexes.isEmpty())
+            return 0;
+        return jdbc.update("DELETE FROM chapters WHERE google_book_id = :googleBookId AND chapter_index IN (:indexes)",
+                Map.of("googleBookId", googleBookId, "indexes", chapterIndexes));
+    }
+}
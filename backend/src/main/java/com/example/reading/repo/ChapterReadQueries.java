@@ -0,0 +1,79 @@
+package com.example.reading.repo;
+
+import com.example.reading.util.KeysetCursor;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Streaming reads over chapter_reads. The template has a fetch size, so inside a
+// transaction pgjdbc reads through a server-side cursor fetchSize rows at a time
+// instead of buffering the whole result set.
+@Repository
+public class ChapterReadQueries {
+
+    public record HistoryRow(UUID id, LocalDateTime completionDate, UUID bookReadId, String googleBookId,
+            String bookTitle, UUID chapterId, int chapterIndex, String chapterName) {
+
+        // Pass back as the export's cursor parameter to resume after this row
+        @JsonProperty("cursor")
+        public String cursor() {
+            return new KeysetCursor(completionDate, id).encode();
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    public ChapterReadQueries(DataSource dataSource, @Value("${history.export.fetch-size:500}") int fetchSize) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.setFetchSize(fetchSize);
+        this.jdbc = new NamedParameterJdbcTemplate(template);
+    }
+
+    // Hands the user's chapter reads to sink oldest first, ordered by
+    // (completion_date, id). from is inclusive, to exclusive; after resumes
+    // strictly past a previous row. Must run inside a transaction to stream.
+    public void streamHistory(UUID userId, LocalDateTime from, LocalDateTime to, KeysetCursor after,
+            Consumer<HistoryRow> sink) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT cr.id, cr.completion_date, cr.book_read_id, c.google_book_id, b.title,
+                       cr.chapter_id, c.chapter_index, c.name
+                FROM chapter_reads cr
+                JOIN chapters c ON c.id = cr.chapter_id
+                JOIN books b ON b.google_book_id = c.google_book_id
+                WHERE cr.user_id = :userId
+                """);
+        MapSqlParameterSource params = new MapSqlParameterSource("userId", userId);
+        if (from != null) {
+            sql.append(" AND cr.completion_date >= :from");
+            params.addValue("from", from);
+        }
+        if (to != null) {
+            sql.append(" AND cr.completion_date < :to");
+            params.addValue("to", to);
+        }
+        if (after != null) {
+            sql.append(" AND (cr.completion_date, cr.id) > (:afterDate, :afterId)");
+            params.addValue("afterDate", after.timestamp()).addValue("afterId", after.id());
+        }
+        sql.append(" ORDER BY cr.completion_date, cr.id");
+        jdbc.query(sql.toString(), params, rs -> {
+            sink.accept(new HistoryRow(
+                    rs.getObject("id", UUID.class),
+                    rs.getTimestamp("completion_date").toLocalDateTime(),
+                    rs.getObject("book_read_id", UUID.class),
+                    rs.getString("google_book_id"),
+                    rs.getString("title"),
+                    rs.getObject("chapter_id", UUID.class),
+                    rs.getInt("chapter_index"),
+                    rs.getString("name")));
+        });
+    }
+}
@@ -2,14 +2,41 @@ package com.example.reading.repo;
 
 import com.example.reading.model.ChapterRead;
 import com.example.reading.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.*;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ChapterReadRepository extends JpaRepository<ChapterRead, UUID> {
     List<ChapterRead> findByUser(User user);
 
+    // Both are serialized with their book read, chapter and user, so those are
+    // fetched in the same query rather than one lazy load per row
+    @EntityGraph(attributePaths = { "bookRead", "chapter", "user" })
     List<ChapterRead> findByUserId(UUID userId);
 
+    @EntityGraph(attributePaths = { "bookRead", "chapter", "user" })
     List<ChapterRead> findByBookReadId(UUID bookReadId);
+
+    @Query("SELECT cr.chapterId FROM ChapterRead cr WHERE cr.bookReadId = :bookReadId")
+    List<UUID> findChapterIdsByBookReadId(UUID bookReadId);
+
+    @Query(value = "SELECT id FROM chapter_reads WHERE user_id = :userId AND chapter_id = :chapterId " +
+            "ORDER BY completion_date DESC, id DESC LIMIT 1", nativeQuery = true)
+    Optional<UUID> findLatestIdByUserIdAndChapterId(UUID userId, UUID chapterId);
+
+    @Query("SELECT cr.id FROM ChapterRead cr WHERE cr.bookReadId = :bookReadId")
+    List<UUID> findIdsByBookReadId(UUID bookReadId, Limit limit);
+
+    long countByBookReadId(UUID bookReadId);
+
+    @Modifying
+    @Query("DELETE FROM ChapterRead cr WHERE cr.id IN :ids")
+    int deleteAllByIdIn(Collection<UUID> ids);
+
+    @Modifying
+    @Query("DELETE FROM ChapterRead cr WHERE cr.bookReadId = :bookReadId")
+    int deleteAllByBookReadId(UUID bookReadId);
 }
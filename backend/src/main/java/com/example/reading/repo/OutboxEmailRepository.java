@@ -0,0 +1,14 @@
+package com.example.reading.repo;
+
+import com.example.reading.model.OutboxEmail;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, UUID> {
+    List<OutboxEmail> findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(
+            OutboxEmail.Status status, LocalDateTime now, Limit limit);
+}
@@ -0,0 +1,52 @@
+package com.example.reading.repo;
+
+import com.example.reading.model.RewardBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface RewardBalanceRepository extends JpaRepository<RewardBalance, RewardBalance.Key> {
+    List<RewardBalance> findByUserId(UUID userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO reward_balances (user_id, type, total, entry_count, updated_at) " +
+            "VALUES (:userId, :type, :amount, :count, now()) " +
+            "ON CONFLICT (user_id, type) DO UPDATE SET " +
+            "total = reward_balances.total + EXCLUDED.total, " +
+            "entry_count = reward_balances.entry_count + EXCLUDED.entry_count, " +
+            "updated_at = now()", nativeQuery = true)
+    void applyDelta(UUID userId, String type, double amount, long count);
+
+    // Reconcile, one batch of users per transaction. First a zero row for each
+    // (user, type) that has rewards but no snapshot row, so that every row the repair
+    // writes exists to be locked
+    @Modifying
+    @Query(value = "INSERT INTO reward_balances (user_id, type, total, entry_count, updated_at) " +
+            "SELECT DISTINCT r.user_id, r.type, 0, 0, now() FROM rewards r WHERE r.user_id IN (:userIds) " +
+            "ON CONFLICT (user_id, type) DO NOTHING", nativeQuery = true)
+    int insertMissing(Collection<UUID> userIds);
+
+    // Then row locks on the batch's snapshot rows: writers for these users wait until
+    // the batch commits (and any already holding a row finish first, so the repair
+    // sees their rewards), while writes for everyone else carry on
+    @Query(value = "SELECT b.user_id FROM reward_balances b WHERE b.user_id IN (:userIds) " +
+            "ORDER BY b.user_id, b.type FOR UPDATE", nativeQuery = true)
+    List<UUID> lockForReconcile(Collection<UUID> userIds);
+
+    // Then the locked rows are set to their sums over rewards; returns the rows that had drifted
+    @Modifying
+    @Query(value = "UPDATE reward_balances b " +
+            "SET total = COALESCE(a.total, 0), entry_count = COALESCE(a.entry_count, 0), updated_at = now() " +
+            "FROM reward_balances x LEFT JOIN (" +
+            "SELECT r.user_id, r.type, SUM(r.amount) AS total, COUNT(*) AS entry_count " +
+            "FROM rewards r WHERE r.user_id IN (:userIds) GROUP BY r.user_id, r.type) a " +
+            "ON a.user_id = x.user_id AND a.type = x.type " +
+            "WHERE x.user_id IN (:userIds) AND b.user_id = x.user_id AND b.type = x.type " +
+            "AND (ABS(COALESCE(a.total, 0) - b.total) > 1e-6 OR COALESCE(a.entry_count, 0) <> b.entry_count)",
+            nativeQuery = true)
+    int repairFromRewards(Collection<UUID> userIds);
+}
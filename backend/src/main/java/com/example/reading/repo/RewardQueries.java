@@ -0,0 +1,48 @@
+package com.example.reading.repo;
+
+import com.example.reading.model.RewardType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Set-based deletes from rewards. Each returns what it removed summed per
+// (user, type), which is exactly the delta reward_balances needs.
+@Repository
+public class RewardQueries {
+
+    public record RemovedTotal(UUID userId, RewardType type, double amount, long count) {
+    }
+
+    private static final String SUM_REMOVED = """
+            RETURNING r.user_id, r.type, r.amount)
+            SELECT user_id, type, SUM(amount) AS amount, COUNT(*) AS entries FROM d GROUP BY user_id, type
+            """;
+
+    private static final RowMapper<RemovedTotal> REMOVED_TOTAL = (rs, i) -> new RemovedTotal(
+            rs.getObject("user_id", UUID.class),
+            RewardType.valueOf(rs.getString("type")),
+            rs.getDouble("amount"),
+            rs.getLong("entries"));
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    public List<RemovedTotal> deleteByChapterReadIds(Collection<UUID> chapterReadIds) {
+        if (chapterReadIds.isEmpty())
+            return List.of();
+        return jdbc.query("WITH d AS (DELETE FROM rewards r WHERE r.chapter_read_id IN (:ids) " + SUM_REMOVED,
+                Map.of("ids", chapterReadIds), REMOVED_TOTAL);
+    }
+
+    public List<RemovedTotal> deleteByBookReadId(UUID bookReadId) {
+        return jdbc.query("WITH d AS (DELETE FROM rewards r USING chapter_reads cr "
+                + "WHERE r.chapter_read_id = cr.id AND cr.book_read_id = :bookReadId " + SUM_REMOVED,
+                Map.of("bookReadId", bookReadId), REMOVED_TOTAL);
+    }
+}
@@ -1,29 +1,34 @@
 package com.example.reading.repo;
 
-import com.example.reading.model.ChapterRead;
+import com.example.reading.dto.RewardEntryDto;
 import com.example.reading.model.Reward;
-import com.example.reading.model.RewardType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public interface RewardRepository extends JpaRepository<Reward, UUID> {
-    List<Reward> findByUserId(UUID userId);
-
-    List<Reward> findByUserIdAndChapterRead(UUID userId, ChapterRead chapterRead);
-
-    @Query("SELECT SUM(r.amount) FROM Reward r WHERE r.userId = :userId AND r.type = :type")
-    Double sumByUserIdAndType(UUID userId, RewardType type);
+    String ENTRY_PROJECTION = "SELECT new com.example.reading.dto.RewardEntryDto(" +
+            "r.id, r.type, r.amount, r.note, r.createdAt, cr.id, cr.completionDate, " +
+            "c.id, c.name, c.chapterIndex, c.googleBookId, c.createdAt, c.updatedAt, " +
+            "br.id, br.startDate, br.endDate, br.inProgress, b.googleBookId, b.title, b.authorsString) " +
+            "FROM Reward r LEFT JOIN r.chapterRead cr LEFT JOIN cr.chapter c " +
+            "LEFT JOIN cr.bookRead br LEFT JOIN br.book b ";
+
+    // Offset page, newest first. Pageable must be unsorted; the order is fixed here.
+    @Query(ENTRY_PROJECTION + "WHERE r.userId = :userId ORDER BY r.createdAt DESC, r.id DESC")
+    List<RewardEntryDto> findEntriesByUserId(UUID userId, Pageable pageable);
+
+    // Keyset page: entries strictly after (createdAt, id) in newest-first order
+    @Query(ENTRY_PROJECTION + "WHERE r.userId = :userId " +
+            "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+            "ORDER BY r.createdAt DESC, r.id DESC")
+    List<RewardEntryDto> findEntriesByUserIdBefore(UUID userId, LocalDateTime createdAt, UUID id, Limit limit);
 
-    @Query("SELECT SUM(r.amount) FROM Reward r WHERE r.userId = :userId AND r.type = 'EARN'")
-    Double getTotalEarnedByUserId(UUID userId);
-
-    @Query("SELECT SUM(r.amount) FROM Reward r WHERE r.userId = :userId AND r.type = 'PAYOUT'")
-    Double getTotalPaidOutByUserId(UUID userId);
-
-    @Query("SELECT SUM(r.amount) FROM Reward r WHERE r.userId = :userId AND r.type = 'SPEND'")
-    Double getTotalSpentByUserId(UUID userId);
+    List<Reward> findByUserId(UUID userId);
 
 }
@@ -0,0 +1,74 @@
+package com.example.reading.repo;
+
+import com.example.reading.dto.ChildDashboardDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Aggregate read-side queries over users
+@Repository
+public class UserQueries {
+
+    // Every per-child figure is a correlated lookup on an index led by user_id,
+    // so the cost is proportional to the number of children, not their history
+    private static final String CHILD_DASHBOARD_SQL = """
+            SELECT u.id, u.first_name, u.username,
+                   rb.earned, rb.paid_out, rb.spent,
+                   ip.titles,
+                   (SELECT COUNT(*) FROM chapter_reads cr
+                    WHERE cr.user_id = u.id AND cr.completion_date >= :weekStart) AS chapters_this_week,
+                   GREATEST(
+                       (SELECT MAX(cr.completion_date) FROM chapter_reads cr WHERE cr.user_id = u.id),
+                       (SELECT MAX(r.created_at) FROM rewards r WHERE r.user_id = u.id),
+                       (SELECT MAX(br.start_date) FROM book_reads br WHERE br.user_id = u.id)) AS last_activity
+            FROM users u
+            CROSS JOIN LATERAL (
+                SELECT COALESCE(SUM(b.total) FILTER (WHERE b.type = 'EARN'), 0) AS earned,
+                       COALESCE(SUM(b.total) FILTER (WHERE b.type = 'PAYOUT'), 0) AS paid_out,
+                       COALESCE(SUM(b.total) FILTER (WHERE b.type = 'SPEND'), 0) AS spent
+                FROM reward_balances b WHERE b.user_id = u.id
+            ) rb
+            CROSS JOIN LATERAL (
+                SELECT COALESCE(array_agg(bk.title ORDER BY br.start_date), '{}') AS titles
+                FROM book_reads br JOIN books bk ON bk.google_book_id = br.google_book_id
+                WHERE br.user_id = u.id AND br.in_progress
+            ) ip
+            WHERE u.parent_id = :parentId
+            ORDER BY u.first_name, u.username
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    // weekStart bounds chaptersReadThisWeek; it is passed in so it follows the
+    // same clock as the completion dates the app writes
+    public List<ChildDashboardDto> findChildDashboards(UUID parentId, LocalDateTime weekStart) {
+        return jdbc.query(CHILD_DASHBOARD_SQL, Map.of("parentId", parentId, "weekStart", weekStart), (rs, i) -> {
+            double earned = rs.getDouble("earned");
+            double paidOut = rs.getDouble("paid_out");
+            double spent = rs.getDouble("spent");
+            Array titles = rs.getArray("titles");
+            Timestamp lastActivity = rs.getTimestamp("last_activity");
+            try {
+                return new ChildDashboardDto(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("first_name"),
+                        rs.getString("username"),
+                        earned, paidOut, spent, earned - paidOut - spent,
+                        Arrays.asList((String[]) titles.getArray()),
+                        rs.getInt("chapters_this_week"),
+                        lastActivity != null ? lastActivity.toLocalDateTime() : null);
+            } finally {
+                titles.free();
+            }
+        });
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.reading.repo;
 
 import com.example.reading.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +16,16 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
 
     Optional<User> findByVerificationToken(String verificationToken);
+
+    List<User> findByParentId(UUID parentId);
+
+    // Read-write so ReplicaRouter keeps it on the primary; a lagging replica would let
+    // a just-revoked token through
+    @Transactional
+    @Query("SELECT u.credentialsChangedAt FROM User u WHERE u.id = :id")
+    Optional<LocalDateTime> findCredentialsChangedAtById(UUID id);
+
+    // Keyset pages of user ids for batch jobs; start from the nil UUID
+    @Query("SELECT u.id FROM User u WHERE u.id > :after ORDER BY u.id")
+    List<UUID> findIdsAfter(UUID after, Limit limit);
 }
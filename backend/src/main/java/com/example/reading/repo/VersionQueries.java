@@ -0,0 +1,42 @@
+package com.example.reading.repo;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Version stamps for conditional GETs, each a single statement
+@Repository
+public class VersionQueries {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    // Bumped by the V8 triggers on every write to the user's book_reads, chapter_reads,
+    // rewards or reward_balances; 0 until the first one
+    public long userVersion(UUID userId) {
+        List<Long> versions = jdbc.queryForList("SELECT version FROM user_change_counters WHERE user_id = :userId",
+                Map.of("userId", userId), Long.class);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+
+    // userVersion plus the newest updated_at among the user's books, whose details show
+    // in the library: book edits are picked up here rather than bumping every reader
+    public String libraryVersion(UUID userId) {
+        return jdbc.queryForObject("""
+                SELECT COALESCE((SELECT c.version FROM user_change_counters c WHERE c.user_id = :userId), 0) AS version,
+                       (SELECT MAX(b.updated_at) FROM book_reads br
+                        JOIN books b ON b.google_book_id = br.google_book_id
+                        WHERE br.user_id = :userId) AS books_updated_at""",
+                Map.of("userId", userId), (rs, i) -> {
+                    Timestamp booksUpdatedAt = rs.getTimestamp("books_updated_at");
+                    return rs.getLong("version") + "-" + (booksUpdatedAt != null
+                            ? booksUpdatedAt.getTime() * 1000 + booksUpdatedAt.getNanos() / 1000 % 1000
+                            : 0);
+                });
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.reading.service;
+
+import com.example.reading.dto.BookSnapshotDto;
+import com.example.reading.dto.ChapterSnapshotDto;
+import com.example.reading.repo.CatalogQueries;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+// In-process cache of book rows and their chapter lists, shared by every reader of a
+// title. Entries are immutable snapshots; writers call invalidate, which evicts once
+// their transaction commits here and through the CacheInvalidationBus elsewhere.
+@Service
+public class BookCatalog {
+
+    private static final String TOPIC = "book";
+
+    // A book with its chapters in chapter_index order. version changes whenever the
+    // book or its chapter list does, and is the same on every instance for the same rows.
+    public record Entry(BookSnapshotDto book, List<ChapterSnapshotDto> chapters, String version) {
+
+        static Entry of(BookSnapshotDto book, List<ChapterSnapshotDto> chapters) {
+            LocalDateTime chaptersUpdatedAt = chapters.stream()
+                    .map(ChapterSnapshotDto::updatedAt)
+                    .max(LocalDateTime::compareTo)
+                    .orElse(null);
+            return new Entry(book, List.copyOf(chapters),
+                    micros(book.updatedAt()) + "." + chapters.size() + "." + micros(chaptersUpdatedAt));
+        }
+
+        private static long micros(LocalDateTime t) {
+            return t == null ? 0 : t.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + t.getNano() / 1000;
+        }
+
+        public Set<UUID> chapterIds() {
+            return chapters.stream().map(ChapterSnapshotDto::id).collect(Collectors.toSet());
+        }
+    }
+
+    private final CatalogQueries catalogQueries;
+    private final CacheInvalidationBus bus;
+    private final Cache<String, Entry> entries;
+    // Books invalidated within the window. A load that may have read them from before the
+    // write (a replica still replaying it, or a read that raced the commit) is served but
+    // not cached.
+    private final Cache<String, Boolean> settling;
+
+    public BookCatalog(CatalogQueries catalogQueries, CacheInvalidationBus bus, ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${catalog.cache.ttl:10m}") Duration ttl,
+            @Value("${catalog.cache.max-size:5000}") long maxSize,
+            @Value("${catalog.cache.settle-window:5s}") Duration settleWindow) {
+        this.catalogQueries = catalogQueries;
+        this.bus = bus;
+        this.entries = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.settling = Caffeine.newBuilder()
+                .expireAfterWrite(settleWindow)
+                .maximumSize(100_000)
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, entries, "book.catalog"));
+        bus.subscribe(TOPIC, new CacheInvalidationBus.Subscriber() {
+            @Override
+            public void evict(Set<String> googleBookIds) {
+                googleBookIds.forEach(BookCatalog.this::evict);
+            }
+
+            @Override
+            public void evictAll() {
+                entries.invalidateAll();
+            }
+        });
+    }
+
+    // The book and its chapters, or null for an unknown book (not cached). Concurrent
+    // misses for the same book share one load.
+    public Entry get(String googleBookId) {
+        Entry[] loaded = new Entry[1];
+        Entry entry = entries.get(googleBookId, id -> {
+            loaded[0] = load(List.of(id)).get(id);
+            return settling.getIfPresent(id) != null ? null : loaded[0];
+        });
+        return entry != null ? entry : loaded[0];
+    }
+
+    public BookSnapshotDto book(String googleBookId) {
+        Entry entry = get(googleBookId);
+        return entry != null ? entry.book() : null;
+    }
+
+    // Loads whichever of the books are not cached yet, two statements in all
+    public void preload(Collection<String> googleBookIds) {
+        Set<String> missing = googleBookIds.stream()
+                .filter(id -> !entries.asMap().containsKey(id))
+                .collect(Collectors.toSet());
+        if (missing.isEmpty())
+            return;
+        load(missing).forEach((id, entry) ->
+                // Checked under the entry's lock, so an eviction that lands after this put still removes it
+                entries.asMap().computeIfAbsent(id, k -> settling.getIfPresent(k) != null ? null : entry));
+    }
+
+    // Evicts the book after the current transaction commits, or now outside one, on
+    // this and every other instance
+    public void invalidate(String googleBookId) {
+        bus.publish(TOPIC, googleBookId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(googleBookId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(googleBookId);
+            }
+        });
+    }
+
+    private void evict(String googleBookId) {
+        settling.put(googleBookId, Boolean.TRUE);
+        entries.invalidate(googleBookId);
+    }
+
+    private Map<String, Entry> load(Collection<String> googleBookIds) {
+        Map<String, BookSnapshotDto> books = catalogQueries.findBooks(googleBookIds);
+        if (books.isEmpty())
+            return Map.of();
+        Map<String, List<ChapterSnapshotDto>> chapters = catalogQueries.findChapters(books);
+        return books.values().stream().collect(Collectors.toMap(BookSnapshotDto::googleBookId,
+                book -> Entry.of(book, chapters.getOrDefault(book.googleBookId(), List.of()))));
+    }
+}
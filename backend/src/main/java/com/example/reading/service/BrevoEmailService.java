@@ -1,15 +1,14 @@
 package com.example.reading.service;
 
+import com.example.reading.client.OutboundHttpClient;
+import com.example.reading.client.Upstream;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.List;
 import java.util.Map;
 
@@ -21,21 +20,18 @@ public class BrevoEmailService {
     @Value("${spring.mail.from:noreply@example.com}")
     private String mailFrom;
 
-    private static final String BREVO_API_URL = "https://api.brevo.com/v3/smtp/email";
-    private final RestTemplate restTemplate;
+    private static final String SEND_EMAIL_PATH = "/v3/smtp/email";
+    private final Upstream brevo;
+    private final ObjectMapper objectMapper;
 
-    public BrevoEmailService(RestTemplateBuilder restTemplateBuilder) {
-        this.restTemplate = restTemplateBuilder
-            .connectTimeout(Duration.ofSeconds(10))
-            .readTimeout(Duration.ofSeconds(20))
-            .build();
+    public BrevoEmailService(OutboundHttpClient outbound, ObjectMapper objectMapper) {
+        this.brevo = outbound.upstream("brevo");
+        this.objectMapper = objectMapper;
     }
 
-    public boolean sendEmail(String to, String subject, String htmlContent) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("api-key", brevoApiKey);
-
+    // Sends one email through Brevo; a non-2xx response is thrown as an IOException
+    // carrying the status and body, so the outbox can record why delivery failed
+    public void deliver(String to, String subject, String htmlContent) throws IOException, InterruptedException {
         Map<String, Object> payload = Map.of(
             "sender", Map.of("email", mailFrom),
             "to", List.of(Map.of("email", to)),
@@ -43,13 +39,13 @@ public class BrevoEmailService {
             "htmlContent", htmlContent
         );
 
-        HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(BREVO_API_URL, request, String.class);
-            return response.getStatusCode().is2xxSuccessful();
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
+        HttpRequest.Builder request = HttpRequest.newBuilder(brevo.resolve(SEND_EMAIL_PATH))
+            .header("Content-Type", "application/json")
+            .header("api-key", brevoApiKey)
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)));
+        HttpResponse<String> response = brevo.send(request);
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Brevo returned HTTP " + response.statusCode() + ": " + response.body());
         }
     }
 }
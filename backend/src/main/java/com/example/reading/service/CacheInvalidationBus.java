@@ -0,0 +1,205 @@
+package com.example.reading.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Tells the other backend instances to drop entries from their in-process caches.
+// publish() sends a Postgres NOTIFY on the caller's connection, so inside a
+// transaction it is delivered on commit and dropped on rollback. Every instance
+// LISTENs on its own connection to the primary and applies what arrives in batches;
+// NOTIFYs sent while that connection is down are lost, so each (re)connect evicts
+// everything.
+@Service
+public class CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final ResultSetExtractor<Void> IGNORE = rs -> null;
+
+    // Keys are passed as the strings given to publish
+    public interface Subscriber {
+        void evict(Set<String> keys);
+
+        void evictAll();
+    }
+
+    private final JdbcTemplate jdbc;
+    private final DataSourceProperties dataSourceProperties;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final String channel;
+    private final Duration coalesceWindow;
+    private final Duration keepaliveInterval;
+    private final Duration reconnectDelay;
+    // Lets an instance skip the events it published itself; it evicts locally at commit
+    private final String instanceId = UUID.randomUUID().toString();
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> received = new ConcurrentHashMap<>();
+    private final Counter resyncs;
+    private volatile boolean running;
+    private volatile Connection listenConnection;
+    private Thread listener;
+
+    public CacheInvalidationBus(JdbcTemplate jdbc, DataSourceProperties dataSourceProperties,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${cache.invalidation.enabled:true}") boolean enabled,
+            @Value("${cache.invalidation.channel:cache_invalidation}") String channel,
+            @Value("${cache.invalidation.coalesce-window:50ms}") Duration coalesceWindow,
+            @Value("${cache.invalidation.keepalive-interval:30s}") Duration keepaliveInterval,
+            @Value("${cache.invalidation.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.jdbc = jdbc;
+        this.dataSourceProperties = dataSourceProperties;
+        this.registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.enabled = enabled;
+        this.channel = channel;
+        this.coalesceWindow = coalesceWindow;
+        this.keepaliveInterval = keepaliveInterval;
+        this.reconnectDelay = reconnectDelay;
+        this.resyncs = Counter.builder("cache.invalidation.resyncs")
+                .description("Full evictions after the listen connection was (re)established")
+                .register(registry);
+    }
+
+    public void subscribe(String topic, Subscriber subscriber) {
+        subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    // Within a transaction, identical events are delivered once
+    public void publish(String topic, String key) {
+        if (enabled)
+            jdbc.query("SELECT pg_notify(?, ?)", IGNORE, channel, instanceId + " " + topic + " " + key);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled)
+            return;
+        running = true;
+        listener = Thread.ofPlatform().daemon().name("cache-invalidation-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (listener == null)
+            return;
+        listener.interrupt();
+        // Unblocks a pending read
+        Connection conn = listenConnection;
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+                 Statement st = conn.createStatement()) {
+                listenConnection = conn;
+                st.execute("LISTEN " + channel);
+                resync();
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] first = pg.getNotifications((int) keepaliveInterval.toMillis());
+                    if (first == null || first.length == 0) {
+                        // An idle socket can die silently; a round trip finds out
+                        st.execute("SELECT 1");
+                        continue;
+                    }
+                    apply(collect(pg, first));
+                }
+            } catch (SQLException e) {
+                if (!running)
+                    return;
+                log.warn("Cache invalidation listener disconnected, retrying in {}: {}", reconnectDelay, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            } finally {
+                listenConnection = null;
+            }
+        }
+    }
+
+    // Waits out the coalesce window after the first notification so a burst is applied as one batch
+    private Map<String, Set<String>> collect(PGConnection pg, PGNotification[] first) throws SQLException {
+        Map<String, Set<String>> keysByTopic = new HashMap<>();
+        add(keysByTopic, first);
+        long deadline = System.nanoTime() + coalesceWindow.toNanos();
+        long remainingMillis;
+        while ((remainingMillis = (deadline - System.nanoTime()) / 1_000_000) > 0)
+            add(keysByTopic, pg.getNotifications((int) remainingMillis));
+        return keysByTopic;
+    }
+
+    private void add(Map<String, Set<String>> keysByTopic, PGNotification[] notifications) {
+        if (notifications == null)
+            return;
+        for (PGNotification n : notifications) {
+            String[] parts = n.getParameter().split(" ", 3);
+            if (parts.length == 3 && !instanceId.equals(parts[0]))
+                keysByTopic.computeIfAbsent(parts[1], t -> new LinkedHashSet<>()).add(parts[2]);
+        }
+    }
+
+    private void apply(Map<String, Set<String>> keysByTopic) {
+        keysByTopic.forEach((topic, keys) -> {
+            received.computeIfAbsent(topic, t -> Counter.builder("cache.invalidation.received")
+                    .description("Keys evicted on behalf of other instances")
+                    .tag("topic", t)
+                    .register(registry)).increment(keys.size());
+            for (Subscriber subscriber : subscribers.getOrDefault(topic, List.of())) {
+                try {
+                    subscriber.evict(keys);
+                } catch (RuntimeException e) {
+                    log.error("Evicting {} {} keys failed", keys.size(), topic, e);
+                }
+            }
+        });
+    }
+
+    private void resync() {
+        resyncs.increment();
+        subscribers.forEach((topic, list) -> list.forEach(subscriber -> {
+            try {
+                subscriber.evictAll();
+            } catch (RuntimeException e) {
+                log.error("Evicting all {} entries failed", topic, e);
+            }
+        }));
+        log.info("Cache invalidation listener connected; local caches cleared");
+    }
+}
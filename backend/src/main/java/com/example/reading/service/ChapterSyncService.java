@@ -0,0 +1,93 @@
+package com.example.reading.service;
+
+import com.example.reading.dto.ChapterSyncResultDto;
+import com.example.reading.model.Chapter;
+import com.example.reading.repo.ChapterQueries;
+import com.example.reading.repo.ChapterRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Saves a book's chapter list either by diffing against what is stored (merge)
+// or by dropping and re-inserting everything (replace). Neither mode removes a
+// chapter someone has read, since its EARN rewards still point at the chapter read.
+@Service
+public class ChapterSyncService {
+
+    public static class ChaptersInUseException extends RuntimeException {
+        public ChaptersInUseException(List<Integer> chapterIndexes) {
+            super("Chapters that have been read cannot be removed: " + chapterIndexes);
+        }
+    }
+
+    @Autowired
+    private ChapterRepository chapterRepo;
+    @Autowired
+    private ChapterQueries chapterQueries;
+    @Autowired
+    private BookCatalog bookCatalog;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Chapters are matched on chapterIndex; ids of existing chapters never change
+    @Transactional
+    public ChapterSyncResultDto merge(String googleBookId, List<Chapter> incoming) {
+        Map<Integer, Chapter> existing = new HashMap<>();
+        for (Chapter c : chapterRepo.findByGoogleBookIdOrderByChapterIndex(googleBookId))
+            existing.put(c.getChapterIndex(), c);
+
+        List<Chapter> changed = new ArrayList<>();
+        int inserted = 0, updated = 0, unchanged = 0;
+        for (Chapter c : incoming) {
+            Chapter current = existing.remove(c.getChapterIndex());
+            if (current == null) {
+                inserted++;
+                c.setId(null);
+                changed.add(c);
+            } else if (!Objects.equals(current.getName(), c.getName())) {
+                updated++;
+                c.setId(current.getId());
+                changed.add(c);
+            } else {
+                unchanged++;
+            }
+        }
+        List<Integer> readRemovals = chapterQueries.findReadChapterIndexes(googleBookId, existing.keySet());
+        if (!readRemovals.isEmpty())
+            throw new ChaptersInUseException(readRemovals);
+        chapterQueries.upsert(googleBookId, changed);
+        int deleted = chapterQueries.deleteByChapterIndexes(googleBookId, existing.keySet());
+        bookCatalog.invalidate(googleBookId);
+        // The upsert and delete bypassed the chapters loaded above; without this the
+        // re-read hands back those managed instances with their old names
+        entityManager.flush();
+        entityManager.clear();
+        return new ChapterSyncResultDto(inserted, updated, deleted, unchanged,
+                chapterRepo.findByGoogleBookIdOrderByChapterIndex(googleBookId));
+    }
+
+    @Transactional
+    public ChapterSyncResultDto replace(String googleBookId, List<Chapter> incoming) {
+        List<Chapter> old = chapterRepo.findByGoogleBookIdOrderByChapterIndex(googleBookId);
+        List<Integer> readRemovals = chapterQueries.findReadChapterIndexes(googleBookId,
+                old.stream().map(Chapter::getChapterIndex).toList());
+        if (!readRemovals.isEmpty())
+            throw new ChaptersInUseException(readRemovals);
+        chapterRepo.deleteAllInBatch(old);
+        for (Chapter c : incoming) {
+            c.setId(null);
+            c.setGoogleBookId(googleBookId);
+        }
+        List<Chapter> saved = chapterRepo.saveAll(incoming);
+        bookCatalog.invalidate(googleBookId);
+        return new ChapterSyncResultDto(saved.size(), 0, old.size(), 0, saved);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.reading.service;
+
+import com.example.reading.model.OutboxEmail;
+import com.example.reading.repo.OutboxEmailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Transactional outbox for emails. enqueue() joins the caller's transaction, so
+// the email exists iff the change that triggered it committed. dispatch() runs on
+// whichever instance holds the "email-outbox" lease and delivers due rows in
+// batches, retrying with exponential backoff until maxAttempts, then dead-lettering.
+@Service
+public class EmailOutboxService {
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxService.class);
+    private static final String LEASE = "email-outbox";
+
+    @Autowired
+    private OutboxEmailRepository outboxRepo;
+    @Autowired
+    private BrevoEmailService brevoEmailService;
+    @Autowired
+    private JobLeaseService leaseService;
+
+    @Value("${email.outbox.batch-size:20}")
+    private int batchSize;
+    @Value("${email.outbox.max-attempts:8}")
+    private int maxAttempts;
+    @Value("${email.outbox.initial-backoff:30s}")
+    private Duration initialBackoff;
+    @Value("${email.outbox.max-backoff:1h}")
+    private Duration maxBackoff;
+    @Value("${email.outbox.lease-duration:60s}")
+    private Duration leaseDuration;
+
+    @Transactional
+    public OutboxEmail enqueue(String to, String subject, String htmlContent) {
+        OutboxEmail email = new OutboxEmail();
+        email.setRecipient(to);
+        email.setSubject(subject);
+        email.setHtmlContent(htmlContent);
+        email.setNextAttemptAt(LocalDateTime.now());
+        return outboxRepo.save(email);
+    }
+
+    @Scheduled(fixedDelayString = "${email.outbox.poll-interval:5s}")
+    public void dispatch() {
+        if (!leaseService.tryAcquire(LEASE, leaseDuration))
+            return;
+        List<OutboxEmail> due;
+        do {
+            due = outboxRepo.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAt(
+                    OutboxEmail.Status.PENDING, LocalDateTime.now(), Limit.of(batchSize));
+            for (OutboxEmail email : due) {
+                // Renew per message so a slow batch can't outlive the lease and be
+                // picked up by a second instance
+                if (!leaseService.tryAcquire(LEASE, leaseDuration))
+                    return;
+                deliver(email);
+            }
+        } while (due.size() == batchSize && !Thread.currentThread().isInterrupted());
+    }
+
+    private void deliver(OutboxEmail email) {
+        email.setAttempts(email.getAttempts() + 1);
+        try {
+            brevoEmailService.deliver(email.getRecipient(), email.getSubject(), email.getHtmlContent());
+            email.setStatus(OutboxEmail.Status.SENT);
+            email.setSentAt(LocalDateTime.now());
+            email.setLastError(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            email.setLastError(e.toString());
+            if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(OutboxEmail.Status.DEAD);
+                log.error("Giving up on email {} to {} after {} attempts: {}", email.getId(), email.getRecipient(),
+                        email.getAttempts(), e.toString());
+            } else {
+                email.setNextAttemptAt(LocalDateTime.now().plus(backoff(email.getAttempts())));
+                log.warn("Email {} attempt {} failed, retrying at {}: {}", email.getId(), email.getAttempts(),
+                        email.getNextAttemptAt(), e.toString());
+            }
+        }
+        outboxRepo.save(email);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
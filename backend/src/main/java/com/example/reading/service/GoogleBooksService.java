@@ -1,43 +1,153 @@
 package com.example.reading.service;
 
+import com.example.reading.client.OutboundHttpClient;
+import com.example.reading.client.Upstream;
+import com.example.reading.repo.BookRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import com.example.reading.dto.BookSummaryDto;
 
 @Service
 public class GoogleBooksService {
+    private static final Logger log = LoggerFactory.getLogger(GoogleBooksService.class);
 
-    private static final String API_URL = "https://www.googleapis.com/books/v1/volumes";
+    private static final String VOLUMES_PATH = "/books/v1/volumes";
+    private static final int MAX_RESULTS = 20;
 
-    private final RestTemplate rt = new RestTemplate();
+    // Normalized search terms; absent terms are null
+    record SearchKey(String title, String author, String isbn) {
+        static SearchKey of(String title, String author, String isbn) {
+            String normalizedIsbn = normalize(isbn);
+            return new SearchKey(normalize(title), normalize(author),
+                    normalizedIsbn != null ? normalizedIsbn.replace("-", "").replace(" ", "") : null);
+        }
+
+        private static String normalize(String s) {
+            if (s == null)
+                return null;
+            String n = s.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+            return n.isEmpty() ? null : n;
+        }
+
+        boolean isEmpty() {
+            return title == null && author == null && isbn == null;
+        }
+    }
+
+    private final Upstream googleBooks;
+    private final ObjectMapper objectMapper;
+    private final BookRepository bookRepo;
+    private final Duration searchTimeout;
+    // An in-flight future is shared by every caller asking for the same key, so
+    // concurrent identical misses make one upstream call. Failed futures are dropped.
+    private final AsyncCache<SearchKey, List<BookSummaryDto>> searchCache;
+
+    public GoogleBooksService(OutboundHttpClient outbound, ObjectMapper objectMapper, BookRepository bookRepo,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${google.books.search-timeout:3s}") Duration searchTimeout,
+            @Value("${google.books.cache.ttl:30m}") Duration cacheTtl,
+            @Value("${google.books.cache.max-size:2000}") long cacheMaxSize) {
+        this.googleBooks = outbound.upstream("google-books");
+        this.objectMapper = objectMapper;
+        this.bookRepo = bookRepo;
+        this.searchTimeout = searchTimeout;
+        this.searchCache = Caffeine.newBuilder()
+            .expireAfterWrite(cacheTtl)
+            .maximumSize(cacheMaxSize)
+            .recordStats()
+            .buildAsync();
+        meterRegistry.ifAvailable(registry ->
+            CaffeineCacheMetrics.monitor(registry, searchCache.synchronous(), "google.books.search"));
+    }
 
-    @SuppressWarnings("unchecked")
     public List<BookSummaryDto> search(final String title, final String author, final String isbn) {
+        SearchKey key = SearchKey.of(title, author, isbn);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        CompletableFuture<List<BookSummaryDto>> result = searchCache.get(key, (k, executor) -> fetch(k));
+        try {
+            return result.get(searchTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Leave the upstream call running; it still fills the cache for later searches
+            log.warn("Google Books search exceeded {} ms, serving local catalog results", searchTimeout.toMillis());
+        } catch (ExecutionException e) {
+            log.warn("Google Books search failed, serving local catalog results: {}", e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return searchLocal(key);
+    }
 
-        if ((title == null || title.isEmpty()) &&
-            (author == null || author.isEmpty()) &&
-            (isbn == null || isbn.isEmpty())) {
+    // Fallback over books already saved by users; ISBN is not stored so ISBN-only
+    // searches find nothing here
+    private List<BookSummaryDto> searchLocal(SearchKey key) {
+        if (key.title() == null && key.author() == null) {
             return Collections.emptyList();
         }
+        return bookRepo.searchByTitleAndAuthor(likePattern(key.title()), likePattern(key.author()), Limit.of(MAX_RESULTS))
+            .stream()
+            .map(b -> new BookSummaryDto(b.getGoogleBookId(), b.getTitle(), b.getAuthors(), b.getDescription(), b.getThumbnailUrl()))
+            .toList();
+    }
+
+    private static String likePattern(String term) {
+        if (term == null)
+            return "%";
+        return "%" + term.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
 
-        StringBuilder urlBuilder = new StringBuilder(API_URL + "?q=");
-        String queryString = "";
-        if (title != null && !title.isEmpty()) {
-            queryString += "intitle:" + title.replace(" ", "+");
+    private CompletableFuture<List<BookSummaryDto>> fetch(SearchKey key) {
+        List<String> terms = new ArrayList<>();
+        if (key.title() != null) {
+            terms.add("intitle:" + key.title());
         }
-        if (author != null && !author.isEmpty()) {
-            if(!queryString.isEmpty()) queryString += "+";
-            queryString += "inauthor:" + author.replace(" ", "+");
+        if (key.author() != null) {
+            terms.add("inauthor:" + key.author());
         }
-        if (isbn != null && !isbn.isEmpty()) {
-            if(!queryString.isEmpty()) queryString += "+";
-            queryString += "isbn:" + isbn.replace("-", "");
+        if (key.isbn() != null) {
+            terms.add("isbn:" + key.isbn());
         }
-        urlBuilder.append(queryString);
-        urlBuilder.append("&maxResults=20");
+        String query = URLEncoder.encode(String.join(" ", terms), StandardCharsets.UTF_8);
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                googleBooks.resolve(VOLUMES_PATH + "?q=" + query + "&maxResults=" + MAX_RESULTS))
+            .header("Accept", "application/json")
+            .GET();
+        return googleBooks.sendAsync(request).thenApply(this::parse);
+    }
 
-        Map<String, Object> result = (Map<String, Object>) rt.getForObject(urlBuilder.toString(), Map.class);
+    @SuppressWarnings("unchecked")
+    private List<BookSummaryDto> parse(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Google Books returned HTTP " + response.statusCode());
+        }
+        Map<String, Object> result;
+        try {
+            result = objectMapper.readValue(response.body(), Map.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         if (result == null || !result.containsKey("items")) return Collections.emptyList();
         List<BookSummaryDto> books = new ArrayList<>();
         Object itemsObj = result.get("items");
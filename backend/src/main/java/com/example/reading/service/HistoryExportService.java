@@ -0,0 +1,83 @@
+package com.example.reading.service;
+
+import com.example.reading.repo.ChapterReadQueries;
+import com.example.reading.util.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Writes a user's reading history to a stream row by row, so memory stays flat
+// however long the history is. The read-only transaction keeps the Postgres
+// cursor open for the length of the export.
+@Service
+public class HistoryExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        public final String contentType;
+        public final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+    }
+
+    private static final String CSV_HEADER = "id,completionDate,bookReadId,googleBookId,bookTitle,chapterId,chapterIndex,chapterName,cursor\n";
+
+    @Autowired
+    private ChapterReadQueries chapterReadQueries;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(UUID userId, Format format, LocalDateTime from, LocalDateTime to, KeysetCursor after,
+            OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV)
+            writer.write(CSV_HEADER);
+        try {
+            chapterReadQueries.streamHistory(userId, from, to, after, row -> {
+                try {
+                    if (format == Format.CSV)
+                        writeCsv(writer, row);
+                    else
+                        writer.write(objectMapper.writeValueAsString(row) + "\n");
+                } catch (IOException e) {
+                    // Usually the client went away; abandons the cursor
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(Writer writer, ChapterReadQueries.HistoryRow row) throws IOException {
+        writer.write(row.id() + "," + row.completionDate() + "," + row.bookReadId() + ","
+                + csv(row.googleBookId()) + "," + csv(row.bookTitle()) + "," + row.chapterId() + ","
+                + row.chapterIndex() + "," + csv(row.chapterName()) + "," + row.cursor() + "\n");
+    }
+
+    private static String csv(String value) {
+        if (value == null)
+            return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r"))
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        return value;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.reading.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+// Row-lock leases over job_leases. Competing instances serialize on the lease
+// row's UPDATE; only the current owner, or anyone once the lease has expired,
+// gets a row back.
+@Service
+public class JobLeaseService {
+
+    private final String nodeId = hostName() + "/" + UUID.randomUUID();
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    // Acquires or renews the lease; false if another instance holds it
+    public boolean tryAcquire(String name, Duration duration) {
+        int updated = jdbc.update("""
+                UPDATE job_leases
+                SET owner = :owner, expires_at = now() + make_interval(secs => :seconds)
+                WHERE name = :name AND (owner = :owner OR expires_at < now())
+                """, Map.of("name", name, "owner", nodeId, "seconds", (double) duration.toSeconds()));
+        return updated == 1;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.reading.service;
+
+import com.example.reading.dto.ReadDeletionResultDto;
+import com.example.reading.repo.BookReadRepository;
+import com.example.reading.repo.ChapterReadRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Deletes chapter reads together with the rewards that reference them, using
+// indexed DELETE ... WHERE statements rather than loading either table. Rewards
+// go first because chapter_reads -> rewards is ON DELETE SET NULL, which EARN
+// rows are not allowed to be.
+@Service
+public class ReadDeletionService {
+    private static final Logger log = LoggerFactory.getLogger(ReadDeletionService.class);
+
+    @Autowired
+    private ChapterReadRepository readRepo;
+    @Autowired
+    private BookReadRepository bookReadRepo;
+    @Autowired
+    private RewardLedgerService ledgerService;
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Value("${bookreads.purge.async-threshold:500}")
+    private long asyncThreshold;
+    @Value("${bookreads.purge.chunk-size:100}")
+    private int chunkSize;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<UUID> purging = ConcurrentHashMap.newKeySet();
+
+    // Undoes the user's most recent read of the chapter; empty if they have none
+    @Transactional
+    public Optional<ReadDeletionResultDto> deleteLatestChapterRead(UUID userId, UUID chapterId) {
+        return readRepo.findLatestIdByUserIdAndChapterId(userId, chapterId).map(id -> {
+            int rewards = ledgerService.removeForChapterReads(List.of(id));
+            int reads = readRepo.deleteAllByIdIn(List.of(id));
+            return new ReadDeletionResultDto(reads, rewards, false);
+        });
+    }
+
+    // Small book reads are deleted in the caller's transaction. Above the threshold
+    // the work moves to a background purge that commits one chunk at a time, so
+    // no single transaction holds locks on every chapter read of the book.
+    @Transactional
+    public ReadDeletionResultDto deleteBookRead(UUID bookReadId) {
+        long chapterReads = readRepo.countByBookReadId(bookReadId);
+        if (chapterReads > asyncThreshold) {
+            if (purging.add(bookReadId))
+                executor.execute(() -> purge(bookReadId));
+            return new ReadDeletionResultDto((int) chapterReads, 0, true);
+        }
+        return deleteBookReadNow(bookReadId);
+    }
+
+    private ReadDeletionResultDto deleteBookReadNow(UUID bookReadId) {
+        int rewards = ledgerService.removeForBookRead(bookReadId);
+        int reads = readRepo.deleteAllByBookReadId(bookReadId);
+        bookReadRepo.deleteById(bookReadId);
+        return new ReadDeletionResultDto(reads, rewards, false);
+    }
+
+    private void purge(UUID bookReadId) {
+        int reads = 0, rewards = 0;
+        try {
+            int deleted;
+            do {
+                ReadDeletionResultDto chunk = tx.execute(s -> {
+                    List<UUID> ids = readRepo.findIdsByBookReadId(bookReadId, Limit.of(chunkSize));
+                    int r = ledgerService.removeForChapterReads(ids);
+                    return new ReadDeletionResultDto(readRepo.deleteAllByIdIn(ids), r, false);
+                });
+                deleted = chunk.getChapterReadsDeleted();
+                reads += deleted;
+                rewards += chunk.getRewardsDeleted();
+            } while (deleted == chunkSize && !Thread.currentThread().isInterrupted());
+            // Picks up anything marked read while the purge was running
+            ReadDeletionResultDto rest = tx.execute(s -> deleteBookReadNow(bookReadId));
+            log.info("Purged book read {}: {} chapter reads, {} rewards", bookReadId,
+                    reads + rest.getChapterReadsDeleted(), rewards + rest.getRewardsDeleted());
+        } catch (RuntimeException e) {
+            // Committed chunks stay deleted; deleting the book read again resumes
+            log.error("Purge of book read {} stopped after {} chapter reads", bookReadId, reads, e);
+        } finally {
+            purging.remove(bookReadId);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.reading.service;
+
+import com.example.reading.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+// Periodic verify-and-repair pass over the reward_balances snapshot, a batch of users
+// per transaction, on whichever instance holds the "reward-balance-reconcile" lease
+@Component
+public class RewardBalanceReconciler {
+    private static final Logger log = LoggerFactory.getLogger(RewardBalanceReconciler.class);
+    private static final String LEASE = "reward-balance-reconcile";
+
+    @Autowired
+    private RewardLedgerService ledgerService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JobLeaseService leaseService;
+
+    @Value("${rewards.balances.reconcile-batch-size:500}")
+    private int batchSize;
+    @Value("${rewards.balances.reconcile-lease-duration:5m}")
+    private Duration leaseDuration;
+
+    // The lease is left to expire rather than released, so an instance whose cron
+    // fires a little late doesn't start a second pass
+    @Scheduled(cron = "${rewards.balances.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        if (!leaseService.tryAcquire(LEASE, leaseDuration))
+            return;
+        long start = System.currentTimeMillis();
+        long users = 0, drifted = 0;
+        UUID after = new UUID(0, 0);
+        List<UUID> batch;
+        do {
+            batch = userRepository.findIdsAfter(after, Limit.of(batchSize));
+            if (batch.isEmpty())
+                break;
+            drifted += ledgerService.reconcile(batch);
+            users += batch.size();
+            after = batch.get(batch.size() - 1);
+            // Renewed per batch so a long pass can't outlive the lease and overlap another instance's
+            if (!leaseService.tryAcquire(LEASE, leaseDuration)) {
+                log.warn("Reward balance reconcile lost its lease after {} users", users);
+                return;
+            }
+        } while (batch.size() == batchSize && !Thread.currentThread().isInterrupted());
+        if (drifted > 0)
+            log.warn("Reward balance snapshot had {} drifted rows; rewritten from rewards", drifted);
+        log.info("Reward balance reconcile finished in {} ms, {} users, {} drifted rows",
+                System.currentTimeMillis() - start, users, drifted);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.reading.service;
+
+import com.example.reading.model.Reward;
+import com.example.reading.model.RewardBalance;
+import com.example.reading.model.RewardType;
+import com.example.reading.repo.RewardBalanceRepository;
+import com.example.reading.repo.RewardQueries;
+import com.example.reading.repo.RewardRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// All writes to the rewards table go through here so that reward_balances stays
+// in step with it. Every method joins the caller's transaction.
+@Service
+public class RewardLedgerService {
+
+    @Autowired
+    private RewardRepository rewardRepo;
+    @Autowired
+    private RewardBalanceRepository balanceRepo;
+    @Autowired
+    private RewardQueries rewardQueries;
+
+    @Transactional
+    public Reward record(Reward reward) {
+        Reward saved = rewardRepo.save(reward);
+        balanceRepo.applyDelta(saved.getUserId(), saved.getType().name(), saved.getAmount(), 1);
+        return saved;
+    }
+
+    // Saves the rewards as JDBC batches and applies one delta per (user, type)
+    @Transactional
+    public List<Reward> recordAll(Collection<Reward> rewards) {
+        List<Reward> saved = rewardRepo.saveAll(rewards);
+        applyDeltas(saved, 1);
+        return saved;
+    }
+
+    // Deletes the rewards tied to the given chapter reads / book read without
+    // loading them; both return the number of rewards deleted
+    @Transactional
+    public int removeForChapterReads(Collection<UUID> chapterReadIds) {
+        return applyRemoved(rewardQueries.deleteByChapterReadIds(chapterReadIds));
+    }
+
+    @Transactional
+    public int removeForBookRead(UUID bookReadId) {
+        return applyRemoved(rewardQueries.deleteByBookReadId(bookReadId));
+    }
+
+    private int applyRemoved(List<RewardQueries.RemovedTotal> removed) {
+        long count = 0;
+        for (RewardQueries.RemovedTotal t : removed) {
+            balanceRepo.applyDelta(t.userId(), t.type().name(), -t.amount(), -t.count());
+            count += t.count();
+        }
+        return (int) count;
+    }
+
+    private void applyDeltas(Collection<Reward> rewards, int sign) {
+        Map<UUID, Map<RewardType, double[]>> deltas = new HashMap<>();
+        for (Reward r : rewards) {
+            double[] d = deltas.computeIfAbsent(r.getUserId(), k -> new EnumMap<>(RewardType.class))
+                    .computeIfAbsent(r.getType(), k -> new double[2]);
+            d[0] += sign * r.getAmount();
+            d[1] += sign;
+        }
+        deltas.forEach((userId, byType) -> byType.forEach(
+                (type, d) -> balanceRepo.applyDelta(userId, type.name(), d[0], (long) d[1])));
+    }
+
+    // Snapshot rows per type; types the user has never had a reward for are absent
+    @Transactional(readOnly = true)
+    public Map<RewardType, RewardBalance> getBalances(UUID userId) {
+        Map<RewardType, RewardBalance> balances = new EnumMap<>(RewardType.class);
+        for (RewardBalance b : balanceRepo.findByUserId(userId))
+            balances.put(b.getType(), b);
+        return balances;
+    }
+
+    // Compares the users' reward_balances rows against the rewards table and rewrites
+    // any that have drifted. Only those rows are locked, so writes for other users are
+    // not held up. Returns the number of drifted (user, type) rows.
+    @Transactional
+    public int reconcile(Collection<UUID> userIds) {
+        balanceRepo.insertMissing(userIds);
+        balanceRepo.lockForReconcile(userIds);
+        return balanceRepo.repairFromRewards(userIds);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.reading.service;
+
+import com.example.reading.repo.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+// Rejects JWTs issued before a user's credentials last changed. The cutoff is
+// cached per user so normal requests stay off the users table; a reset evicts it on
+// every instance through the CacheInvalidationBus, and the short TTL covers events
+// the bus misses.
+@Service
+public class TokenRevocationService {
+
+    private static final String TOPIC = "user";
+
+    // changedAt is null for a user whose credentials never changed
+    private record Cutoff(Instant changedAt) {
+    }
+
+    private final UserRepository userRepository;
+    private final CacheInvalidationBus bus;
+    private final Cache<UUID, Cutoff> cutoffs;
+
+    public TokenRevocationService(UserRepository userRepository, CacheInvalidationBus bus,
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${jwt.revocation-check-ttl:60s}") Duration ttl,
+            @Value("${jwt.revocation-cache.max-size:100000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.bus = bus;
+        this.cutoffs = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cutoffs, "jwt.revocation"));
+        bus.subscribe(TOPIC, new CacheInvalidationBus.Subscriber() {
+            @Override
+            public void evict(Set<String> userIds) {
+                userIds.forEach(id -> cutoffs.invalidate(UUID.fromString(id)));
+            }
+
+            @Override
+            public void evictAll() {
+                cutoffs.invalidateAll();
+            }
+        });
+    }
+
+    public boolean isRevoked(UUID userId, Date issuedAt) {
+        Cutoff cutoff = cutoffs.get(userId, id -> new Cutoff(userRepository.findCredentialsChangedAtById(id)
+                .map(t -> t.atZone(ZoneId.systemDefault()).toInstant())
+                .orElse(null)));
+        if (cutoff.changedAt() == null)
+            return false;
+        if (issuedAt == null)
+            return true;
+        // iat has whole-second precision
+        return issuedAt.toInstant().isBefore(cutoff.changedAt().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    // Call after persisting a new credentials_changed_at for the user
+    public void evict(UUID userId) {
+        cutoffs.invalidate(userId);
+        bus.publish(TOPIC, userId.toString());
+    }
+}
@@ -1,39 +1,89 @@
 package com.example.reading.util;
 
+import com.example.reading.config.AuthenticatedUser;
+import com.example.reading.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.JwsHeader;
-import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 
 @Component
 public class JwtUtil {
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_PARENT_ID = "pid";
+
     private final SecretKey key;
+    private final JwtParser parser;
     private final long expirationMs = 1000 * 60 * 60 * 24; // 24 hours
 
-    public JwtUtil(Environment env) {
+    // Verified claims keyed by SHA-256 of the compact token. An entry lives until
+    // the token's exp, so a hit is only ever served for a still-valid token.
+    private final Cache<String, Claims> verifiedClaims;
+
+    public JwtUtil(Environment env, ObjectProvider<MeterRegistry> meterRegistry) {
         String secret = env.getProperty("JWT_SECRET");
         if (secret == null || secret.isBlank()) {
             throw new IllegalStateException("JWT_SECRET environment variable must be set and base64-encoded");
         }
         this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(env.getProperty("jwt.claims-cache.max-size", Long.class, 10_000L))
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, verifiedClaims, "jwt.claims"));
     }
 
-    public String generateToken(String username) {
-        return Jwts.builder()
+    // username is the login name (email for parents), kept as the subject
+    public String generateToken(String username, User user) {
+        var builder = Jwts.builder()
                 .subject(username)
+                .claim(CLAIM_USER_ID, user.getId().toString())
+                .claim(CLAIM_ROLE, user.getRole().name())
                 .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(key)
-                .compact();
+                .expiration(new Date(System.currentTimeMillis() + expirationMs));
+        if (user.getParentId() != null) {
+            builder.claim(CLAIM_PARENT_ID, user.getParentId().toString());
+        }
+        return builder.signWith(key).compact();
     }
 
     public String extractUsername(String token) {
@@ -49,8 +99,47 @@ public class JwtUtil {
         }
     }
 
+    // Verified claims, or null if the token is invalid or expired
+    public Claims parseVerifiedClaims(String token) {
+        try {
+            return getClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Principal carried by the token, or null for tokens issued without the user claims
+    public AuthenticatedUser toPrincipal(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null)
+            return null;
+        String parentId = claims.get(CLAIM_PARENT_ID, String.class);
+        return new AuthenticatedUser(
+                UUID.fromString(userId),
+                claims.getSubject(),
+                User.UserRole.valueOf(role),
+                parentId != null ? UUID.fromString(parentId) : null);
+    }
+
     private Claims getClaims(String token) {
-        Jws<Claims> jws = Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-        return jws.getPayload();
+        String cacheKey = sha256(token);
+        Claims claims = verifiedClaims.getIfPresent(cacheKey);
+        if (claims != null)
+            return claims;
+        claims = parser.parseSignedClaims(token).getPayload();
+        // Tokens without exp are still accepted but never cached
+        if (claims.getExpiration() != null)
+            verifiedClaims.put(cacheKey, claims);
+        return claims;
+    }
+
+    private static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
@@ -0,0 +1,7 @@
+-- V10__drop_book_reader_fanout.sql
+-- An edit to a book no longer bumps the counter of every user who has read it; one
+-- popular title made a single UPDATE write a row per reader. The library ETag now
+-- folds in the newest updated_at of the user's books when it is computed instead.
+
+DROP TRIGGER books_update_version ON books;
+DROP FUNCTION bump_book_reader_counters();
@@ -0,0 +1,19 @@
+-- V2__reward_balances.sql
+-- Materialized per-user reward balances, maintained in the same transaction as
+-- every insert into or delete from rewards
+
+CREATE TABLE reward_balances (
+    user_id UUID NOT NULL,
+    type VARCHAR(10) NOT NULL CHECK (type IN ('EARN', 'PAYOUT', 'SPEND')),
+    total DOUBLE PRECISION NOT NULL DEFAULT 0.0,
+    entry_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_reward_balances PRIMARY KEY (user_id, type),
+    CONSTRAINT fk_reward_balance_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Backfill from existing rewards
+INSERT INTO reward_balances (user_id, type, total, entry_count)
+SELECT user_id, type, SUM(amount), COUNT(*)
+FROM rewards
+GROUP BY user_id, type;
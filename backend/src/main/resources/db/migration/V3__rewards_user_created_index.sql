@@ -0,0 +1,4 @@
+-- V3__rewards_user_created_index.sql
+-- Supports keyset pagination of a user's reward history on (created_at, id)
+
+CREATE INDEX idx_rewards_user_created ON rewards(user_id, created_at DESC, id DESC);
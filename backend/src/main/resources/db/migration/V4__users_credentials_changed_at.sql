@@ -0,0 +1,4 @@
+-- V4__users_credentials_changed_at.sql
+-- Tokens issued before this instant are rejected (set on password reset)
+
+ALTER TABLE users ADD COLUMN credentials_changed_at TIMESTAMP;
@@ -0,0 +1,5 @@
+-- V6__chapter_reads_user_completion_index.sql
+-- Lets the history export read a user's chapter reads in (completion_date, id)
+-- order, and resume from a cursor, without sorting
+
+CREATE INDEX idx_chapter_reads_user_completion ON chapter_reads(user_id, completion_date, id);
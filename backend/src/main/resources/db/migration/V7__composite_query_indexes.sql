@@ -0,0 +1,25 @@
+-- V7__composite_query_indexes.sql
+-- Indexes from auditing the repository query plans (mvn -Pplanaudit test) against
+-- generated data, and the single-column indexes they make redundant
+
+-- The balance reconcile's SUM/COUNT over rewards GROUP BY (user_id, type) for a batch
+-- of user ids (RewardBalanceRepository.repairFromRewards) becomes an index-only scan
+-- instead of a BitmapAnd of idx_rewards_user_id and idx_rewards_type and heap reads
+CREATE INDEX idx_rewards_user_type ON rewards(user_id, type) INCLUDE (amount);
+
+-- user_id alone is the leading column of this and of idx_rewards_user_created (V3),
+-- and type has three values, so neither index is ever the better choice
+DROP INDEX idx_rewards_user_id;
+DROP INDEX idx_rewards_type;
+
+-- findTopByBookAndUserOrderByIdDesc walked the whole primary key filtering on both
+-- columns; the in-progress read count looks up the same pair
+CREATE INDEX idx_book_reads_user_book ON book_reads(user_id, google_book_id);
+DROP INDEX idx_book_reads_user_id;
+
+-- Leading column of idx_chapter_reads_user_completion (V6)
+DROP INDEX idx_chapter_reads_user_id;
+
+-- Email verification looked users up by token with a sequential scan; only
+-- unverified accounts carry one
+CREATE INDEX idx_users_verification_token ON users(verification_token) WHERE verification_token IS NOT NULL;
@@ -0,0 +1,74 @@
+-- V8__user_change_counters.sql
+-- Per-user version stamp for conditional GETs (ETags). Bumped by statement-level
+-- triggers so every write path counts, including bulk SQL and cascades, and a
+-- multi-row statement costs one upsert per affected user rather than one per row.
+-- Upserts go in user_id order so concurrent multi-user statements lock rows in the
+-- same order. No foreign key: the triggers also fire while a user's rows are
+-- cascade-deleted.
+
+CREATE TABLE user_change_counters (
+    user_id UUID PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE FUNCTION bump_user_change_counters() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO user_change_counters AS c (user_id, version)
+        SELECT DISTINCT user_id, 1 FROM new_rows ORDER BY user_id
+        ON CONFLICT (user_id) DO UPDATE SET version = c.version + 1;
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO user_change_counters AS c (user_id, version)
+        SELECT user_id, 1 FROM new_rows UNION SELECT user_id, 1 FROM old_rows ORDER BY 1
+        ON CONFLICT (user_id) DO UPDATE SET version = c.version + 1;
+    ELSE
+        INSERT INTO user_change_counters AS c (user_id, version)
+        SELECT DISTINCT user_id, 1 FROM old_rows ORDER BY user_id
+        ON CONFLICT (user_id) DO UPDATE SET version = c.version + 1;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER book_reads_insert_version AFTER INSERT ON book_reads
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+CREATE TRIGGER book_reads_update_version AFTER UPDATE ON book_reads
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+CREATE TRIGGER book_reads_delete_version AFTER DELETE ON book_reads
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+
+CREATE TRIGGER chapter_reads_insert_version AFTER INSERT ON chapter_reads
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+CREATE TRIGGER chapter_reads_update_version AFTER UPDATE ON chapter_reads
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+CREATE TRIGGER chapter_reads_delete_version AFTER DELETE ON chapter_reads
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+
+CREATE TRIGGER rewards_insert_version AFTER INSERT ON rewards
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+CREATE TRIGGER rewards_update_version AFTER UPDATE ON rewards
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+CREATE TRIGGER rewards_delete_version AFTER DELETE ON rewards
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+
+-- The rewards summary reads reward_balances, which the reconcile job can also repair
+CREATE TRIGGER reward_balances_update_version AFTER UPDATE ON reward_balances
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+CREATE TRIGGER reward_balances_delete_version AFTER DELETE ON reward_balances
+    REFERENCING OLD TABLE AS old_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_user_change_counters();
+
+-- Book details appear in every reader's library, so an edit bumps each of them
+CREATE FUNCTION bump_book_reader_counters() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO user_change_counters AS c (user_id, version)
+    SELECT DISTINCT br.user_id, 1
+    FROM book_reads br
+    JOIN new_rows b ON b.google_book_id = br.google_book_id
+    ORDER BY br.user_id
+    ON CONFLICT (user_id) DO UPDATE SET version = c.version + 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER books_update_version AFTER UPDATE ON books
+    REFERENCING NEW TABLE AS new_rows FOR EACH STATEMENT EXECUTE FUNCTION bump_book_reader_counters();
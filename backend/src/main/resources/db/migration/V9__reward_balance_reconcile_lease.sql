@@ -0,0 +1,4 @@
+-- V9__reward_balance_reconcile_lease.sql
+-- The reward balance reconcile runs on one instance at a time
+
+INSERT INTO job_leases (name) VALUES ('reward-balance-reconcile');
@@ -0,0 +1,301 @@
+package com.example.reading.config;
+
+import com.example.reading.model.User;
+import com.example.reading.repo.UserRepository;
+import com.example.reading.service.BookCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Calls every @QueryBudget handler against a migrated Postgres with a few books,
+// chapter reads and rewards, and checks the SQL statements it issues. Strict mode is
+// on (application-test.yml), so going over a budget also fails the request. Each
+// request runs with the book catalog cold, the most a handler can issue.
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryBudgetTest.HandlerStatements.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+    // Statements each handler issues today, keyed like "GET /api/credits". Lower
+    // the @QueryBudget along with an entry here when a handler gets cheaper.
+    private static final Map<String, Integer> EXPECTED = Map.ofEntries(
+            Map.entry("GET /api/parent/kids", 1),
+            Map.entry("GET /api/parent/dashboard", 1),
+            Map.entry("GET /api/books", 2),
+            Map.entry("GET /api/books/{googleBookId}/chapters", 2),
+            Map.entry("POST /api/bookreads/{bookReadId}/chapters/{chapterId}/read", 3),
+            Map.entry("POST /api/bookreads/{bookReadId}/chapters/read", 7),
+            Map.entry("GET /api/credits", 1),
+            Map.entry("GET /api/history", 1),
+            Map.entry("GET /api/bookreads/{bookReadId}/chapterreads", 1),
+            Map.entry("GET /api/bookreads/in-progress", 3),
+            Map.entry("GET /api/rewards", 2),
+            Map.entry("GET /api/rewards/summary", 2));
+
+    private static final List<String> BOOKS = List.of("budget-0", "budget-1", "budget-2");
+    private static final int CHAPTERS = 5;
+
+    // Stopped by its own shutdown hook, after the cached application context is closed
+    private static final EmbeddedPostgres postgres = startPostgres();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private BookCatalog bookCatalog;
+    @Autowired
+    private HandlerStatements handlerStatements;
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private String parentToken;
+    private String kidToken;
+    private Map<String, UUID> bookReadIds;
+
+    // A parent with one kid who is reading three books, one of them partly read
+    @BeforeAll
+    void seed() throws Exception {
+        User parent = new User();
+        parent.setEmail("budget-parent@example.test");
+        parent.setUsername(parent.getEmail());
+        parent.setFirstName("Parent");
+        parent.setPassword(passwordEncoder.encode("password"));
+        parent.setRole(User.UserRole.PARENT);
+        parent.setStatus("VERIFIED");
+        userRepository.save(parent);
+        parentToken = login(parent.getEmail());
+
+        send(post("/api/parent/kids").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("username", "budget-kid", "firstName", "Kid", "password", "password"))), parentToken);
+        kidToken = login("budget-kid");
+
+        for (String book : BOOKS) {
+            send(post("/api/books").contentType(MediaType.APPLICATION_JSON)
+                    .content(json(Map.of("googleBookId", book, "title", "Title " + book, "authors", List.of("A", "B")))), kidToken);
+            send(post("/api/books/{googleBookId}/chapters", book).contentType(MediaType.APPLICATION_JSON)
+                    .content(json(IntStream.range(0, CHAPTERS)
+                            .mapToObj(i -> Map.of("name", "Chapter " + i, "chapterIndex", i))
+                            .toList())), kidToken);
+        }
+        bookReadIds = jdbc.query("SELECT br.google_book_id, br.id FROM book_reads br JOIN users u ON u.id = br.user_id "
+                        + "WHERE u.username = 'budget-kid'",
+                rs -> {
+                    Map<String, UUID> ids = new HashMap<>();
+                    while (rs.next())
+                        ids.put(rs.getString(1), rs.getObject(2, UUID.class));
+                    return ids;
+                });
+        send(post("/api/bookreads/{bookReadId}/chapters/read", bookReadIds.get("budget-1"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("chapterIds", chapterIds("budget-1").subList(0, 2)))), kidToken);
+    }
+
+    @Test
+    void everyBudgetedHandlerIsCovered() {
+        Set<String> budgeted = handlerMapping.getHandlerMethods().entrySet().stream()
+                .filter(e -> e.getValue().hasMethodAnnotation(QueryBudget.class))
+                .flatMap(e -> e.getKey().getMethodsCondition().getMethods().stream()
+                        .flatMap(method -> e.getKey().getPatternValues().stream().map(pattern -> method + " " + pattern)))
+                .collect(Collectors.toSet());
+        assertThat(EXPECTED.keySet()).containsExactlyInAnyOrderElementsOf(budgeted);
+    }
+
+    @Test
+    void parentKids() throws Exception {
+        assertStatements(get("/api/parent/kids"), parentToken);
+    }
+
+    @Test
+    void parentDashboard() throws Exception {
+        assertStatements(get("/api/parent/dashboard"), parentToken);
+    }
+
+    @Test
+    void library() throws Exception {
+        assertStatements(get("/api/books"), kidToken);
+        assertStatements(get("/api/books").param("sort", "recent").param("limit", "2"), kidToken);
+    }
+
+    @Test
+    void chapters() throws Exception {
+        assertStatements(get("/api/books/{googleBookId}/chapters", "budget-0"), kidToken);
+    }
+
+    @Test
+    void markChapterRead() throws Exception {
+        assertStatements(post("/api/bookreads/{bookReadId}/chapters/{chapterId}/read",
+                bookReadIds.get("budget-2"), chapterIds("budget-2").get(0)), kidToken);
+    }
+
+    @Test
+    void markChaptersRead() throws Exception {
+        assertStatements(post("/api/bookreads/{bookReadId}/chapters/read", bookReadIds.get("budget-0"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("chapterIds", chapterIds("budget-0")))), kidToken);
+    }
+
+    @Test
+    void credits() throws Exception {
+        assertStatements(get("/api/credits"), kidToken);
+    }
+
+    @Test
+    void history() throws Exception {
+        assertStatements(get("/api/history"), kidToken);
+    }
+
+    @Test
+    void chapterReads() throws Exception {
+        assertStatements(get("/api/bookreads/{bookReadId}/chapterreads", bookReadIds.get("budget-1")), kidToken);
+    }
+
+    @Test
+    void inProgress() throws Exception {
+        assertStatements(get("/api/bookreads/in-progress"), kidToken);
+    }
+
+    @Test
+    void rewards() throws Exception {
+        assertStatements(get("/api/rewards").param("pageSize", "1"), kidToken);
+        String nextCursor = objectMapper.readTree(send(get("/api/rewards").param("pageSize", "1"), kidToken))
+                .get("nextCursor").asText();
+        assertStatements(get("/api/rewards").param("pageSize", "1").param("cursor", nextCursor), kidToken);
+    }
+
+    @Test
+    void rewardsSummary() throws Exception {
+        assertStatements(get("/api/rewards/summary"), kidToken);
+    }
+
+    private void assertStatements(MockHttpServletRequestBuilder request, String token) throws Exception {
+        BOOKS.forEach(bookCatalog::invalidate);
+        send(request, token);
+        String handler = handlerStatements.handler;
+        assertThat(EXPECTED).as("expected statements").containsKey(handler);
+        assertThat(handlerStatements.statements).as("%s statements", handler).isEqualTo(EXPECTED.get(handler));
+        assertThat(handlerStatements.statements).as("%s statements", handler).isLessThanOrEqualTo(handlerStatements.budget);
+    }
+
+    private String send(MockHttpServletRequestBuilder request, String token) throws Exception {
+        return mvc.perform(request.header("Authorization", "Bearer " + token))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private String login(String username) throws Exception {
+        String body = mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("username", username, "password", "password"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+
+    private List<UUID> chapterIds(String googleBookId) {
+        return jdbc.queryForList("SELECT id FROM chapters WHERE google_book_id = ? ORDER BY chapter_index",
+                UUID.class, googleBookId);
+    }
+
+    private String json(Object value) throws IOException {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Statements issued between a handler's preHandle and afterCompletion, the span
+    // QueryBudgetInterceptor holds to the budget, for the last request on this thread
+    @TestConfiguration
+    static class HandlerStatements implements HandlerInterceptor, WebMvcConfigurer {
+
+        private static final String BASELINE_ATTRIBUTE = HandlerStatements.class.getName() + ".baseline";
+
+        String handler;
+        int statements;
+        int budget;
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+            registry.addInterceptor(this);
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            RequestQueryStats stats = RequestQueryStats.current();
+            if (stats != null)
+                request.setAttribute(BASELINE_ATTRIBUTE, stats.getStatements());
+            return true;
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+            Integer baseline = (Integer) request.getAttribute(BASELINE_ATTRIBUTE);
+            if (baseline == null || !(handler instanceof HandlerMethod method))
+                return;
+            QueryBudget annotation = method.getMethodAnnotation(QueryBudget.class);
+            this.handler = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            this.statements = RequestQueryStats.current().getStatements() - baseline;
+            this.budget = annotation != null ? annotation.value() : Integer.MAX_VALUE;
+        }
+    }
+}
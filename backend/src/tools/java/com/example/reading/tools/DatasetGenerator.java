@@ -0,0 +1,414 @@
+package com.example.reading.tools;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+// Fills a migrated but empty database with synthetic families, books and reading
+// history for scale testing. Every row, id included, is derived from --seed and
+// --end-date, so the same arguments always produce the same data. Rows are streamed
+// to Postgres with COPY, one pass per table, so memory stays flat at any size.
+//
+//   mvn -Pdatagen test -Ddatagen.args="--families=30000 --books=20000 --books-per-child=30"
+//
+// gives roughly 100k users and 50M chapter reads. Book popularity is Zipf
+// distributed, books per child log-normal, children per family geometric. Parents
+// are parent{f}@example.test, children kid{f}-{c}, all with the password "password".
+//
+// Options (--name=value): url, user, password (default to the POSTGRES_* env vars),
+// seed, families, max-children, books, min-chapters, max-chapters, books-per-child,
+// book-skew, reread-rate, finish-rate, spend-rate, days, end-date, and truncate to
+// replace existing users and books instead of refusing to run.
+public class DatasetGenerator {
+
+    private static final String PASSWORD_HASH = BCrypt.hashpw("password", "$2a$10$datasetgeneratorsalt..");
+    private static final String[] FIRST_NAMES = { "Ava", "Ben", "Cleo", "Dev", "Ezra", "Fay", "Gus", "Hana", "Ivo",
+            "June", "Kai", "Lena", "Milo", "Nia", "Omar", "Pia", "Quin", "Rosa", "Sami", "Tess" };
+    private static final String[] TITLE_WORDS = { "Secret", "Dragon", "Garden", "Island", "Moon", "River", "Castle",
+            "Shadow", "Winter", "Lost", "Golden", "Forest", "Star", "Clock", "Map", "Storm", "Whisper", "Fox" };
+    private static final String[] SURNAMES = { "Abbott", "Brooks", "Chen", "Diaz", "Evans", "Fischer", "Garcia",
+            "Hughes", "Ito", "Jensen", "Khan", "Lopez", "Moreau", "Novak", "Okafor", "Park", "Quinn", "Rossi" };
+
+    // Namespaces for derived ids
+    private static final int PARENT = 1, CHILD = 2, CHAPTER = 3, BOOK_READ = 4, CHAPTER_READ = 5, REWARD = 6,
+            FAMILY = 7, ACTIVITY = 8, BOOK = 9;
+
+    private final Map<String, String> options;
+    private final long seed;
+    private final int families;
+    private final int maxChildren;
+    private final int books;
+    private final int minChapters;
+    private final int maxChapters;
+    private final double booksPerChild;
+    private final double bookSkew;
+    private final double rereadRate;
+    private final double finishRate;
+    private final double spendRate;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final double[] bookCdf;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--"))
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        new DatasetGenerator(options).run();
+    }
+
+    DatasetGenerator(Map<String, String> options) {
+        this.options = options;
+        seed = Long.parseLong(option("seed", "42"));
+        families = Integer.parseInt(option("families", "1000"));
+        maxChildren = Integer.parseInt(option("max-children", "4"));
+        books = Integer.parseInt(option("books", "2000"));
+        minChapters = Integer.parseInt(option("min-chapters", "5"));
+        maxChapters = Integer.parseInt(option("max-chapters", "40"));
+        booksPerChild = Double.parseDouble(option("books-per-child", "8"));
+        bookSkew = Double.parseDouble(option("book-skew", "1.1"));
+        rereadRate = Double.parseDouble(option("reread-rate", "0.15"));
+        finishRate = Double.parseDouble(option("finish-rate", "0.75"));
+        spendRate = Double.parseDouble(option("spend-rate", "0.3"));
+        end = LocalDate.parse(option("end-date", LocalDate.now().toString())).atStartOfDay();
+        start = end.minusDays(Integer.parseInt(option("days", "730")));
+
+        // Zipf: the book at popularity rank k is picked with weight 1 / k^skew
+        bookCdf = new double[books];
+        double sum = 0;
+        for (int k = 0; k < books; k++) {
+            sum += 1 / Math.pow(k + 1, bookSkew);
+            bookCdf[k] = sum;
+        }
+        for (int k = 0; k < books; k++)
+            bookCdf[k] /= sum;
+    }
+
+    private String option(String name, String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    void run() throws SQLException {
+        String url = option("url", "jdbc:postgresql://localhost:5432/" + envOr("POSTGRES_DB", "postgres"));
+        try (Connection conn = DriverManager.getConnection(url, option("user", envOr("POSTGRES_USER", "postgres")),
+                option("password", envOr("POSTGRES_PASSWORD", "postgres")))) {
+            conn.setAutoCommit(false);
+            prepare(conn);
+            System.out.printf("Generating seed=%d families=%d books=%d window=%s..%s%n", seed, families, books,
+                    start.toLocalDate(), end.toLocalDate());
+
+            load(conn, "users", "id, role, parent_id, email, username, first_name, password, status", this::users);
+            load(conn, "books", "google_book_id, title, description, authors", this::books);
+            load(conn, "chapters", "id, google_book_id, name, chapter_index", this::chapters);
+            load(conn, "book_reads", "id, google_book_id, user_id, start_date, end_date", copy ->
+                    forEachChild((f, c, parentId, childId, rnd) -> activity(childId, rnd, new Activity() {
+                        @Override
+                        public void bookRead(UUID id, String bookId, LocalDateTime startDate, LocalDateTime endDate) {
+                            copy.row(id, bookId, childId, startDate, endDate);
+                        }
+                    })));
+            load(conn, "chapter_reads", "id, book_read_id, chapter_id, user_id, completion_date", copy ->
+                    forEachChild((f, c, parentId, childId, rnd) -> activity(childId, rnd, new Activity() {
+                        @Override
+                        public void chapterRead(UUID id, UUID bookReadId, UUID chapterId, LocalDateTime completedAt) {
+                            copy.row(id, bookReadId, chapterId, childId, completedAt);
+                        }
+                    })));
+            load(conn, "rewards", "id, type, user_id, amount, chapter_read_id, note, created_at", copy ->
+                    forEachChild((f, c, parentId, childId, rnd) -> activity(childId, rnd, new Activity() {
+                        @Override
+                        public void chapterRead(UUID id, UUID bookReadId, UUID chapterId, LocalDateTime completedAt) {
+                            copy.row(uuid(REWARD, id.getMostSignificantBits(), id.getLeastSignificantBits()),
+                                    "EARN", childId, 1.0, id, null, completedAt);
+                        }
+
+                        @Override
+                        public void spend(UUID id, double amount, LocalDateTime at) {
+                            copy.row(id, "SPEND", childId, amount, null, "Generated spend", at);
+                        }
+                    })));
+
+            timed(conn, "reward_balances", """
+                    INSERT INTO reward_balances (user_id, type, total, entry_count, updated_at)
+                    SELECT user_id, type, SUM(amount), COUNT(*), now() FROM rewards GROUP BY user_id, type
+                    """);
+            conn.setAutoCommit(true);
+            timed(conn, "analyze", "ANALYZE");
+        }
+    }
+
+    private void prepare(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            if (options.containsKey("truncate")) {
+                st.execute("TRUNCATE users, books CASCADE");
+                conn.commit();
+                return;
+            }
+            try (ResultSet rs = st.executeQuery("SELECT EXISTS (SELECT 1 FROM users) OR EXISTS (SELECT 1 FROM books)")) {
+                rs.next();
+                if (rs.getBoolean(1))
+                    throw new IllegalStateException("Database already has users or books; pass --truncate to replace them");
+            }
+        }
+    }
+
+    // ---- per-table row sources ----
+
+    private void users(CopyWriter copy) {
+        for (int f = 0; f < families; f++) {
+            UUID parentId = uuid(PARENT, f, 0);
+            copy.row(parentId, "PARENT", null, "parent" + f + "@example.test", null,
+                    FIRST_NAMES[f % FIRST_NAMES.length], PASSWORD_HASH, "VERIFIED");
+        }
+        forEachChild((f, c, parentId, childId, rnd) -> copy.row(childId, "CHILD", parentId, null,
+                "kid" + f + "-" + c, FIRST_NAMES[rnd.nextInt(FIRST_NAMES.length)],
+                PASSWORD_HASH, "VERIFIED"));
+    }
+
+    private void books(CopyWriter copy) {
+        for (int b = 0; b < books; b++) {
+            SplittableRandom rnd = random(BOOK, b);
+            String title = "The " + TITLE_WORDS[rnd.nextInt(TITLE_WORDS.length)] + " "
+                    + TITLE_WORDS[rnd.nextInt(TITLE_WORDS.length)] + " " + (b + 1);
+            String authors = SURNAMES[rnd.nextInt(SURNAMES.length)]
+                    + (rnd.nextInt(4) == 0 ? ", " + SURNAMES[rnd.nextInt(SURNAMES.length)] : "");
+            copy.row(bookId(b), title, "Synthetic book " + (b + 1), authors);
+        }
+    }
+
+    private void chapters(CopyWriter copy) {
+        for (int b = 0; b < books; b++) {
+            for (int i = 1, n = chapterCount(b); i <= n; i++)
+                copy.row(chapterId(b, i), bookId(b), "Chapter " + i, i);
+        }
+    }
+
+    // ---- deterministic model ----
+
+    private interface ChildVisitor {
+        void visit(int family, int child, UUID parentId, UUID childId, SplittableRandom rnd);
+    }
+
+    // Family sizes are geometric: most families have one child, few have maxChildren
+    private void forEachChild(ChildVisitor visitor) {
+        for (int f = 0; f < families; f++) {
+            SplittableRandom rnd = random(FAMILY, f);
+            int children = 1;
+            while (children < maxChildren && rnd.nextDouble() < 0.45)
+                children++;
+            for (int c = 0; c < children; c++)
+                visitor.visit(f, c, uuid(PARENT, f, 0), uuid(CHILD, f, c), rnd.split());
+        }
+    }
+
+    private interface Activity {
+        default void bookRead(UUID id, String bookId, LocalDateTime startDate, LocalDateTime endDate) {
+        }
+
+        default void chapterRead(UUID id, UUID bookReadId, UUID chapterId, LocalDateTime completedAt) {
+        }
+
+        default void spend(UUID id, double amount, LocalDateTime at) {
+        }
+    }
+
+    // Replays one child's reading history. Each pass calls this again with the
+    // same random stream, so book_reads, chapter_reads and rewards agree.
+    private void activity(UUID childId, SplittableRandom childRandom, Activity sink) {
+        SplittableRandom rnd = random(ACTIVITY, childId.getMostSignificantBits() ^ childRandom.nextLong());
+        // Log-normal with mean booksPerChild: a long tail of very keen readers
+        double sigma = 1.0;
+        int titles = (int) Math.round(Math.exp(Math.log(booksPerChild) - sigma * sigma / 2 + sigma * rnd.nextGaussian()));
+        long windowMinutes = Duration.between(start, end).toMinutes();
+        long bookReadSeq = 0, chapterReadSeq = 0;
+        double earned = 0, spent = 0;
+        for (int t = 0; t < Math.max(1, titles); t++) {
+            int book = sampleBook(rnd);
+            int chapters = chapterCount(book);
+            int reads = 1;
+            while (reads < 4 && rnd.nextDouble() < rereadRate)
+                reads++;
+            LocalDateTime at = start.plusMinutes((long) (rnd.nextDouble() * windowMinutes));
+            for (int r = 0; r < reads && at.isBefore(end); r++) {
+                UUID bookReadId = uuid(BOOK_READ, childId.getLeastSignificantBits(), bookReadSeq++);
+                boolean finished = r < reads - 1 || rnd.nextDouble() < finishRate;
+                int chaptersRead = finished ? chapters : rnd.nextInt(chapters);
+                // Chapter gaps come from their own stream so they can be walked twice:
+                // once to find where the read ends, once to emit the chapter reads
+                LocalDateTime startDate = at;
+                SplittableRandom gaps = random(BOOK_READ, bookReadId.getLeastSignificantBits());
+                int completed = 0;
+                for (LocalDateTime next; completed < chaptersRead; completed++, at = next) {
+                    next = at.plusMinutes(30 + gaps.nextInt(48 * 60));
+                    if (!next.isBefore(end))
+                        break;
+                }
+                finished &= completed == chaptersRead;
+                chaptersRead = completed;
+                sink.bookRead(bookReadId, bookId(book), startDate, finished ? at : null);
+                gaps = random(BOOK_READ, bookReadId.getLeastSignificantBits());
+                LocalDateTime completedAt = startDate;
+                for (int i = 1; i <= chaptersRead; i++) {
+                    completedAt = completedAt.plusMinutes(30 + gaps.nextInt(48 * 60));
+                    sink.chapterRead(uuid(CHAPTER_READ, childId.getLeastSignificantBits(), chapterReadSeq++),
+                            bookReadId, chapterId(book, i), completedAt);
+                }
+                earned += chaptersRead;
+                if (finished && rnd.nextDouble() < spendRate && earned - spent >= 1) {
+                    double amount = Math.min(earned - spent, 1 + rnd.nextInt(10));
+                    spent += amount;
+                    sink.spend(uuid(REWARD, childId.getLeastSignificantBits(), -bookReadSeq), amount, at);
+                }
+                at = at.plusDays(1 + rnd.nextInt(60));
+            }
+        }
+    }
+
+    private int sampleBook(SplittableRandom rnd) {
+        double u = rnd.nextDouble();
+        int lo = 0, hi = books - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (bookCdf[mid] < u)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private int chapterCount(int book) {
+        return minChapters + random(CHAPTER, book).nextInt(maxChapters - minChapters + 1);
+    }
+
+    private static String bookId(int book) {
+        return "gen-" + Integer.toString(book, 36);
+    }
+
+    private UUID chapterId(int book, int index) {
+        return uuid(CHAPTER, book, index);
+    }
+
+    private SplittableRandom random(int kind, long key) {
+        return new SplittableRandom(mix(seed * 31 + kind) ^ mix(key));
+    }
+
+    // Version-4 shaped UUID derived from (seed, kind, a, b)
+    private UUID uuid(int kind, long a, long b) {
+        long hi = mix(mix(seed + kind * 0x9E3779B97F4A7C15L) ^ a);
+        long lo = mix(hi ^ mix(b + 0x632BE59BD9B4E019L));
+        hi = (hi & ~0xF000L) | 0x4000L;
+        lo = (lo & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(hi, lo);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ---- loading ----
+
+    private interface RowSource {
+        void writeTo(CopyWriter copy) throws SQLException;
+    }
+
+    // One COPY and one transaction per table
+    private void load(Connection conn, String table, String columns, RowSource source) throws SQLException {
+        long started = System.nanoTime();
+        CopyWriter copy = new CopyWriter(conn, "COPY " + table + " (" + columns + ") FROM STDIN");
+        source.writeTo(copy);
+        long rows = copy.finish();
+        conn.commit();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-14s %,12d rows %8.1fs %,10.0f rows/s%n", table, rows, seconds, rows / seconds);
+    }
+
+    private static void timed(Connection conn, String label, String sql) throws SQLException {
+        long started = System.nanoTime();
+        try (Statement st = conn.createStatement()) {
+            st.execute(sql);
+        }
+        if (!conn.getAutoCommit())
+            conn.commit();
+        System.out.printf("%-14s %26.1fs%n", label, (System.nanoTime() - started) / 1e9);
+    }
+
+    private static String envOr(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isBlank() ? value : defaultValue;
+    }
+
+    // Buffers rows in COPY text format and ships them in ~1 MB chunks
+    private static final class CopyWriter {
+        private static final int FLUSH_AT = 1 << 20;
+
+        private final CopyIn copy;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_AT + 4096);
+
+        CopyWriter(Connection conn, String sql) throws SQLException {
+            this.copy = conn.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        }
+
+        void row(Object... values) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0)
+                    buffer.append('\t');
+                if (values[i] == null)
+                    buffer.append("\\N");
+                else
+                    escape(values[i].toString());
+            }
+            buffer.append('\n');
+            if (buffer.length() >= FLUSH_AT)
+                flush();
+        }
+
+        private void escape(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '\\' -> buffer.append("\\\\");
+                    case '\t' -> buffer.append("\\t");
+                    case '\n' -> buffer.append("\\n");
+                    case '\r' -> buffer.append("\\r");
+                    default -> buffer.append(c);
+                }
+            }
+        }
+
+        private void flush() {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            buffer.setLength(0);
+            try {
+                copy.writeToCopy(bytes, 0, bytes.length);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        long finish() throws SQLException {
+            flush();
+            return copy.endCopy();
+        }
+    }
+}
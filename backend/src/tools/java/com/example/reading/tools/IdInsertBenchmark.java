@@ -0,0 +1,216 @@
+package com.example.reading.tools;
+
+import com.example.reading.util.UuidV7;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Compares random (v4) and time-ordered (v7) UUID primary keys on an append-only
+// table shaped like rewards. Each variant gets a fresh scratch table that
+// --writers connections fill with batched INSERTs, the way Hibernate writes
+// (batch_size rows per executeBatch, reWriteBatchedInserts on). Progress lines show
+// interval throughput, primary key size and WAL written, so the point where a
+// random key's index outgrows shared_buffers is visible.
+//
+//   mvn -Pidbench test -Didbench.args="--rows=20000000"
+//
+// Options (--name=value): url, user, password (default to the POSTGRES_* env vars),
+// rows (per variant, default 20000000), writers (default 4), batch-size (default 50),
+// report-every (default rows / 10), variants (default v4,v7) and keep to leave the
+// id_bench_* tables in place afterwards.
+public class IdInsertBenchmark {
+
+    record Result(String variant, long rows, double seconds, long tableBytes, long indexBytes, long walBytes,
+            Double leafDensity) {
+    }
+
+    private final Map<String, String> options;
+    private final long rows;
+    private final int writers;
+    private final int batchSize;
+    private final long reportEvery;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--"))
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        new IdInsertBenchmark(options).run();
+    }
+
+    IdInsertBenchmark(Map<String, String> options) {
+        this.options = options;
+        this.rows = Long.parseLong(options.getOrDefault("rows", "20000000"));
+        this.writers = Integer.parseInt(options.getOrDefault("writers", "4"));
+        this.batchSize = Integer.parseInt(options.getOrDefault("batch-size", "50"));
+        this.reportEvery = Long.parseLong(options.getOrDefault("report-every", String.valueOf(Math.max(1, rows / 10))));
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+
+    private Connection connect() throws SQLException {
+        String url = options.getOrDefault("url", "jdbc:postgresql://localhost:5432/" + env("POSTGRES_DB", "postgres"));
+        url += (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true";
+        return DriverManager.getConnection(url, options.getOrDefault("user", env("POSTGRES_USER", "postgres")),
+                options.getOrDefault("password", env("POSTGRES_PASSWORD", "postgres")));
+    }
+
+    void run() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (String variant : options.getOrDefault("variants", "v4,v7").split(",")) {
+            Supplier<UUID> ids = switch (variant) {
+                case "v4" -> UUID::randomUUID;
+                case "v7" -> UuidV7::next;
+                default -> throw new IllegalArgumentException("Unknown variant " + variant);
+            };
+            results.add(runVariant(variant, ids));
+        }
+        System.out.printf("%n%-8s %12s %10s %12s %12s %14s %12s %10s%n", "variant", "rows", "rows/s", "table MB",
+                "pkey MB", "pkey B/row", "WAL MB", "leaf fill");
+        for (Result r : results) {
+            System.out.printf("%-8s %12d %10.0f %12.1f %12.1f %14.1f %12.1f %10s%n", r.variant(), r.rows(),
+                    r.rows() / r.seconds(), mb(r.tableBytes()), mb(r.indexBytes()), (double) r.indexBytes() / r.rows(),
+                    mb(r.walBytes()), r.leafDensity() != null ? String.format("%.1f%%", r.leafDensity()) : "n/a");
+        }
+    }
+
+    private Result runVariant(String variant, Supplier<UUID> ids) throws Exception {
+        String table = "id_bench_" + variant;
+        try (Connection conn = connect(); Statement st = conn.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + table);
+            st.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, user_id UUID NOT NULL, "
+                    + "type VARCHAR(10) NOT NULL, amount DOUBLE PRECISION NOT NULL, created_at TIMESTAMP NOT NULL)");
+            st.execute("CHECKPOINT");
+            long walStart = walLsn(st);
+            System.out.printf("%s: inserting %d rows with %d writers, batches of %d%n", variant, rows, writers, batchSize);
+
+            AtomicLong inserted = new AtomicLong();
+            AtomicLong nextReport = new AtomicLong(reportEvery);
+            long start = System.nanoTime();
+            long[] lastReport = { start, 0 };
+            try (ExecutorService pool = Executors.newFixedThreadPool(writers)) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int w = 0; w < writers; w++) {
+                    long share = rows / writers + (w < rows % writers ? 1 : 0);
+                    int writer = w;
+                    futures.add(pool.submit(() -> {
+                        write(table, share, ids, new SplittableRandom(writer), inserted, done -> {
+                            long due = nextReport.get();
+                            if (done >= due && nextReport.compareAndSet(due, due + reportEvery))
+                                report(variant, table, done, start, lastReport, walStart);
+                        });
+                        return null;
+                    }));
+                }
+                for (Future<?> f : futures)
+                    f.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            st.execute("CHECKPOINT");
+            Result result = new Result(variant, rows, seconds, size(st, "pg_table_size('" + table + "')"),
+                    size(st, "pg_relation_size('" + table + "_pkey')"), walLsn(st) - walStart, leafDensity(st, table));
+            if (!options.containsKey("keep"))
+                st.execute("DROP TABLE " + table);
+            return result;
+        }
+    }
+
+    interface Progress {
+        void inserted(long total) throws SQLException;
+    }
+
+    private void write(String table, long count, Supplier<UUID> ids, SplittableRandom rnd, AtomicLong inserted,
+            Progress progress) throws SQLException {
+        try (Connection conn = connect();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO " + table
+                     + " (id, user_id, type, amount, created_at) VALUES (?, ?, 'EARN', 1.0, ?)")) {
+            conn.setAutoCommit(false);
+            // A few thousand users, like a busy hour of children reading
+            UUID[] users = new UUID[4096];
+            for (int i = 0; i < users.length; i++)
+                users[i] = new UUID(rnd.nextLong(), rnd.nextLong());
+            for (long n = 0; n < count; ) {
+                int batch = (int) Math.min(batchSize, count - n);
+                for (int i = 0; i < batch; i++) {
+                    ps.setObject(1, ids.get());
+                    ps.setObject(2, users[rnd.nextInt(users.length)]);
+                    ps.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+                n += batch;
+                progress.inserted(inserted.addAndGet(batch));
+            }
+        }
+    }
+
+    private void report(String variant, String table, long done, long start, long[] lastReport, long walStart)
+            throws SQLException {
+        long now = System.nanoTime();
+        try (Connection conn = connect(); Statement st = conn.createStatement()) {
+            long indexBytes = size(st, "pg_relation_size('" + table + "_pkey')");
+            long wal = walLsn(st) - walStart;
+            synchronized (lastReport) {
+                double interval = (now - lastReport[0]) / 1e9;
+                System.out.printf("  %s %,12d rows  %,9.0f rows/s  pkey %8.1f MB  WAL %9.1f MB  %6.0fs%n", variant, done,
+                        (done - lastReport[1]) / interval, mb(indexBytes), mb(wal), (now - start) / 1e9);
+                lastReport[0] = now;
+                lastReport[1] = done;
+            }
+        }
+    }
+
+    private static long walLsn(Statement st) throws SQLException {
+        try (ResultSet rs = st.executeQuery("SELECT pg_current_wal_lsn() - '0/0'::pg_lsn")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static long size(Statement st, String expression) throws SQLException {
+        try (ResultSet rs = st.executeQuery("SELECT " + expression)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // Average B-tree leaf fill from pgstattuple, when the extension can be installed
+    private static Double leafDensity(Statement st, String table) {
+        try {
+            st.execute("CREATE EXTENSION IF NOT EXISTS pgstattuple");
+            try (ResultSet rs = st.executeQuery("SELECT avg_leaf_density FROM pgstatindex('" + table + "_pkey')")) {
+                rs.next();
+                return rs.getDouble(1);
+            }
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static double mb(long bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.reading.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// HTTP load driver for a locally running backend, meant to be pointed at a database
+// filled by DatasetGenerator (it logs in as kid{f}-0 and parent{f}@example.test).
+//
+//   mvn -Ploadtest test -Dloadtest.args="--model=open --rate=50 --duration=60s"
+//
+// Each session is a scripted visit. A child logs in, loads in-progress books, marks
+// the next chapter of one of them read, pages through rewards and checks the
+// summary. A parent logs in and loads the kids list and the dashboard.
+//
+// closed model: --users virtual threads each run sessions back to back (with
+// --think-time between requests), so throughput falls as latency rises.
+// open model: sessions start at --rate per second whether or not earlier ones have
+// finished, so queueing shows up in the latencies instead of being hidden by it.
+//
+// Latency is recorded per endpoint in HdrHistogram (microsecond resolution) and
+// reported as p50/p90/p99/p99.9/max after --warmup is discarded. --hgrm-dir also
+// writes each endpoint's full percentile distribution for comparing runs.
+//
+// Other options (--name=value): base-url, families, parent-ratio, seed,
+// max-in-flight (open model only).
+public class LoadDriver {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final String baseUrl;
+    private final String model;
+    private final int users;
+    private final double rate;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Duration thinkTime;
+    private final int families;
+    private final double parentRatio;
+    private final long seed;
+    private final int maxInFlight;
+    private final String hgrmDir;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong sessionSeq = new AtomicLong();
+    private final LongAdder sessionsCompleted = new LongAdder();
+    private final LongAdder sessionsFailed = new LongAdder();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--"))
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        new LoadDriver(options).run();
+    }
+
+    LoadDriver(Map<String, String> options) {
+        baseUrl = options.getOrDefault("base-url", "http://localhost:8080/api");
+        model = options.getOrDefault("model", "closed");
+        users = Integer.parseInt(options.getOrDefault("users", "20"));
+        rate = Double.parseDouble(options.getOrDefault("rate", "20"));
+        duration = duration(options.getOrDefault("duration", "60s"));
+        warmup = duration(options.getOrDefault("warmup", "10s"));
+        thinkTime = duration(options.getOrDefault("think-time", "0s"));
+        families = Integer.parseInt(options.getOrDefault("families", "1000"));
+        parentRatio = Double.parseDouble(options.getOrDefault("parent-ratio", "0.2"));
+        seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "10000"));
+        hgrmDir = options.get("hgrm-dir");
+        if (!model.equals("open") && !model.equals("closed"))
+            throw new IllegalArgumentException("--model must be open or closed");
+    }
+
+    // Accepts 90s, 5m, 500ms or an ISO-8601 duration
+    private static Duration duration(String value) {
+        if (value.endsWith("ms"))
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        if (value.endsWith("s"))
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        if (value.endsWith("m"))
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        return Duration.parse(value);
+    }
+
+    void run() throws Exception {
+        System.out.printf("%s model against %s: %s, warmup %ss, measuring %ss%n", model, baseUrl,
+                model.equals("open") ? rate + " sessions/s" : users + " users",
+                warmup.toSeconds(), duration.toSeconds());
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long deadline = measureFrom + duration.toNanos();
+
+        Thread driver = Thread.ofVirtual().start(() -> {
+            if (model.equals("open"))
+                runOpen(start, deadline);
+            else
+                runClosed(deadline);
+        });
+
+        sleepUntil(measureFrom);
+        endpoints.values().forEach(e -> e.reset());
+        sessionsCompleted.reset();
+        sessionsFailed.reset();
+        driver.join();
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+        report(duration.toNanos() / 1e9);
+    }
+
+    private void runClosed(long deadline) {
+        List<Thread> threads = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < deadline)
+                    runSession();
+            }));
+        }
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Sessions are launched on schedule; the schedule never waits for responses
+    private void runOpen(long start, long deadline) {
+        AtomicInteger inFlight = new AtomicInteger();
+        long intervalNanos = (long) (1e9 / rate);
+        long dropped = 0;
+        for (long i = 0; ; i++) {
+            long due = start + i * intervalNanos;
+            if (due >= deadline)
+                break;
+            sleepUntil(due);
+            if (inFlight.get() >= maxInFlight) {
+                dropped++;
+                continue;
+            }
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    runSession();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        while (inFlight.get() > 0)
+            sleepUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50));
+        if (dropped > 0)
+            System.out.printf("WARNING: %d sessions not started because %d were already in flight%n", dropped, maxInFlight);
+    }
+
+    // ---- sessions ----
+
+    private void runSession() {
+        long n = sessionSeq.getAndIncrement();
+        SplittableRandom rnd = new SplittableRandom(seed ^ (n * 0x9E3779B97F4A7C15L));
+        int family = rnd.nextInt(families);
+        try {
+            if (rnd.nextDouble() < parentRatio)
+                parentSession(family);
+            else
+                childSession(family, rnd);
+            sessionsCompleted.increment();
+        } catch (SessionFailed e) {
+            sessionsFailed.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void childSession(int family, SplittableRandom rnd) throws SessionFailed, InterruptedException {
+        String token = login("kid" + family + "-0");
+        JsonNode inProgress = call("GET /bookreads/in-progress", "GET", "/bookreads/in-progress", token, null);
+        if (inProgress.isArray() && !inProgress.isEmpty()) {
+            JsonNode bookRead = inProgress.get(rnd.nextInt(inProgress.size()));
+            JsonNode chapters = call("GET /books/{id}/chapters", "GET",
+                    "/books/" + bookRead.get("googleBookId").asText() + "/chapters", token, null);
+            Set<String> read = new HashSet<>();
+            bookRead.get("readChapterIds").forEach(id -> read.add(id.asText()));
+            for (JsonNode chapter : chapters) {
+                String chapterId = chapter.get("id").asText();
+                if (!read.contains(chapterId)) {
+                    call("POST /bookreads/{id}/chapters/{id}/read", "POST",
+                            "/bookreads/" + bookRead.get("id").asText() + "/chapters/" + chapterId + "/read", token, null);
+                    break;
+                }
+            }
+        }
+        for (int page = 1; page <= 1 + rnd.nextInt(3); page++)
+            call("GET /rewards?page", "GET", "/rewards?page=" + page + "&pageSize=20", token, null);
+        call("GET /rewards/summary", "GET", "/rewards/summary", token, null);
+    }
+
+    private void parentSession(int family) throws SessionFailed, InterruptedException {
+        String token = login("parent" + family + "@example.test");
+        call("GET /parent/kids", "GET", "/parent/kids", token, null);
+        call("GET /parent/dashboard", "GET", "/parent/dashboard", token, null);
+    }
+
+    private String login(String username) throws SessionFailed, InterruptedException {
+        JsonNode body = call("POST /auth/login", "POST", "/auth/login", null,
+                "{\"username\":\"" + username + "\",\"password\":\"password\"}");
+        JsonNode token = body.get("token");
+        if (token == null)
+            throw new SessionFailed();
+        return token.asText();
+    }
+
+    // Times one request into the endpoint's histogram; non-2xx responses are
+    // recorded as errors and end the session
+    private JsonNode call(String endpoint, String method, String path, String token, String body)
+            throws SessionFailed, InterruptedException {
+        if (!thinkTime.isZero())
+            Thread.sleep(thinkTime);
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body != null ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody());
+        if (body != null)
+            request.header("Content-Type", "application/json");
+        if (token != null)
+            request.header("Authorization", "Bearer " + token);
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        long started = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            stats.record(System.nanoTime() - started);
+            if (response.statusCode() / 100 != 2) {
+                stats.errors.increment();
+                throw new SessionFailed();
+            }
+            byte[] bytes = response.body();
+            return bytes.length > 0 && bytes[0] != '"' ? json.readTree(bytes) : json.missingNode();
+        } catch (IOException e) {
+            stats.record(System.nanoTime() - started);
+            stats.errors.increment();
+            throw new SessionFailed();
+        }
+    }
+
+    private static final class SessionFailed extends Exception {
+        SessionFailed() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class Endpoint {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+
+        void record(long nanos) {
+            recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        }
+
+        void reset() {
+            recorder.reset();
+            errors.reset();
+        }
+    }
+
+    // ---- reporting ----
+
+    private void report(double seconds) throws IOException {
+        System.out.printf("%nSessions: %d completed, %d failed (%.1f/s)%n%n", sessionsCompleted.sum(),
+                sessionsFailed.sum(), sessionsCompleted.sum() / seconds);
+        System.out.printf("%-42s %8s %7s %8s %9s %9s %9s %9s %9s%n", "endpoint", "count", "errors", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Map<String, Histogram> results = new TreeMap<>();
+        endpoints.forEach((name, e) -> results.put(name, e.recorder.getIntervalHistogram()));
+        for (Map.Entry<String, Histogram> entry : results.entrySet()) {
+            Histogram h = entry.getValue();
+            System.out.printf("%-42s %8d %7d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(),
+                    h.getTotalCount(), endpoints.get(entry.getKey()).errors.sum(), h.getTotalCount() / seconds,
+                    ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+                    ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+        }
+        if (hgrmDir != null) {
+            Path dir = Files.createDirectories(Path.of(hgrmDir));
+            for (Map.Entry<String, Histogram> entry : results.entrySet()) {
+                String file = entry.getKey().replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+                try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(file)))) {
+                    entry.getValue().outputPercentileDistribution(out, 1000.0);
+                }
+            }
+            System.out.printf("%nPercentile distributions (ms) written to %s%n", dir.toAbsolutePath());
+        }
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static void sleepUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.example.reading.tools;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Runs EXPLAIN (ANALYZE, BUFFERS) for the SQL behind every repository method and
+// *Queries statement against a database filled by DatasetGenerator, and exits
+// non-zero if any of them sequentially scans a large table, or reads and discards
+// far more rows through a filter than it keeps (an index that only half fits).
+//
+//   mvn -Pplanaudit test -Dplanaudit.args="--plans"
+//
+// Parameters are taken from the data: the child with the most rewards, the book
+// read with the most chapter reads, the parent with the most children, and so on,
+// so each query runs against its worst realistic case. Statements that write are
+// executed inside a transaction that is rolled back.
+//
+// The SQL below mirrors what Hibernate generates for the derived and JPQL methods
+// (column lists trimmed); keep it in step when a repository method changes.
+// Queries marked fullScan are batch jobs that are expected to read whole tables.
+//
+// Options (--name=value): url, user, password (default to the POSTGRES_* env vars),
+// large-table-rows (tables estimated above this are "large", default 100000),
+// max-filtered (rows a scan may discard by filter beyond 10x what it keeps, default 1000),
+// only (run checks whose name contains this), and plans to print every plan tree
+// rather than only the failing ones.
+public class PlanAudit {
+
+    // setup runs first in the same (rolled back) transaction, for statements that
+    // depend on an earlier one, as the chapter read deletes depend on their rewards'
+    record Check(String name, String sql, boolean fullScan, String setup) {
+        Check after(String setupSql) {
+            return new Check(name, sql, fullScan, setupSql);
+        }
+    }
+
+    // Aggregates over one EXPLAIN tree
+    static final class PlanSummary {
+        double executionMs;
+        long sharedHit;
+        long sharedRead;
+        final List<String> seqScans = new ArrayList<>();
+        final List<String> filtered = new ArrayList<>();
+        final TreeSet<String> indexes = new TreeSet<>();
+    }
+
+    private static final Pattern PARAM = Pattern.compile("(?<!:):([a-zA-Z]\\w*)");
+
+    static final List<Check> CHECKS = List.of(
+            // RewardRepository
+            check("RewardRepository.findEntriesByUserId", """
+                    SELECT r.id, r.type, r.amount, r.note, r.created_at, cr.id, cr.completion_date,
+                           c.id, c.name, c.chapter_index, br.id, br.start_date, b.google_book_id, b.title
+                    FROM rewards r
+                    LEFT JOIN chapter_reads cr ON cr.id = r.chapter_read_id
+                    LEFT JOIN chapters c ON c.id = cr.chapter_id
+                    LEFT JOIN book_reads br ON br.id = cr.book_read_id
+                    LEFT JOIN books b ON b.google_book_id = br.google_book_id
+                    WHERE r.user_id = :userId ORDER BY r.created_at DESC, r.id DESC
+                    OFFSET 40 LIMIT 20"""),
+            check("RewardRepository.findEntriesByUserIdBefore", """
+                    SELECT r.id, r.type, r.amount, r.note, r.created_at, cr.id, cr.completion_date,
+                           c.id, c.name, c.chapter_index, br.id, br.start_date, b.google_book_id, b.title
+                    FROM rewards r
+                    LEFT JOIN chapter_reads cr ON cr.id = r.chapter_read_id
+                    LEFT JOIN chapters c ON c.id = cr.chapter_id
+                    LEFT JOIN book_reads br ON br.id = cr.book_read_id
+                    LEFT JOIN books b ON b.google_book_id = br.google_book_id
+                    WHERE r.user_id = :userId
+                    AND (r.created_at < :rewardCreatedAt OR (r.created_at = :rewardCreatedAt AND r.id < :rewardId))
+                    ORDER BY r.created_at DESC, r.id DESC LIMIT 20"""),
+            check("RewardRepository.findByUserId", "SELECT * FROM rewards r WHERE r.user_id = :userId"),
+            // ChapterReadRepository
+            check("ChapterReadRepository.findByUserId", """
+                    SELECT * FROM chapter_reads cr
+                    JOIN book_reads br ON br.id = cr.book_read_id
+                    JOIN chapters c ON c.id = cr.chapter_id
+                    JOIN users u ON u.id = cr.user_id
+                    WHERE cr.user_id = :userId"""),
+            check("ChapterReadRepository.findByBookReadId", """
+                    SELECT * FROM chapter_reads cr
+                    JOIN book_reads br ON br.id = cr.book_read_id
+                    JOIN chapters c ON c.id = cr.chapter_id
+                    JOIN users u ON u.id = cr.user_id
+                    WHERE cr.book_read_id = :bookReadId"""),
+            check("ChapterReadRepository.findChapterIdsByBookReadId",
+                    "SELECT cr.chapter_id FROM chapter_reads cr WHERE cr.book_read_id = :bookReadId"),
+            check("ChapterReadRepository.findLatestIdByUserIdAndChapterId",
+                    "SELECT id FROM chapter_reads WHERE user_id = :userId AND chapter_id = :chapterId "
+                            + "ORDER BY completion_date DESC, id DESC LIMIT 1"),
+            check("ChapterReadRepository.findIdsByBookReadId",
+                    "SELECT cr.id FROM chapter_reads cr WHERE cr.book_read_id = :bookReadId LIMIT 100"),
+            check("ChapterReadRepository.countByBookReadId",
+                    "SELECT COUNT(cr.id) FROM chapter_reads cr WHERE cr.book_read_id = :bookReadId"),
+            check("ChapterReadRepository.deleteAllByIdIn",
+                    "DELETE FROM chapter_reads cr WHERE cr.id = ANY(:chapterReadIds)")
+                    .after("DELETE FROM rewards WHERE chapter_read_id = ANY(:chapterReadIds)"),
+            check("ChapterReadRepository.deleteAllByBookReadId",
+                    "DELETE FROM chapter_reads cr WHERE cr.book_read_id = :bookReadId")
+                    .after("DELETE FROM rewards r USING chapter_reads cr "
+                            + "WHERE r.chapter_read_id = cr.id AND cr.book_read_id = :bookReadId"),
+            // BookReadRepository
+            check("BookReadRepository.findByUserId", "SELECT * FROM book_reads br WHERE br.user_id = :userId"),
+            check("BookReadRepository.findByBook",
+                    "SELECT * FROM book_reads br WHERE br.google_book_id = :googleBookId"),
+            check("BookReadRepository.findTopByBookOrderByIdDesc",
+                    "SELECT * FROM book_reads br WHERE br.google_book_id = :googleBookId ORDER BY br.id DESC LIMIT 1"),
+            check("BookReadRepository.findTopByBookAndUserOrderByIdDesc",
+                    "SELECT * FROM book_reads br WHERE br.google_book_id = :googleBookId AND br.user_id = :userId "
+                            + "ORDER BY br.id DESC LIMIT 1"),
+            // ChapterRepository
+            check("ChapterRepository.findByGoogleBookIdOrderByChapterIndex",
+                    "SELECT * FROM chapters c WHERE c.google_book_id = :googleBookId ORDER BY c.chapter_index"),
+            // UserRepository
+            check("UserRepository.findByEmail", "SELECT * FROM users u WHERE u.email = :email"),
+            check("UserRepository.findByUsername", "SELECT * FROM users u WHERE u.username = :username"),
+            check("UserRepository.findByVerificationToken",
+                    "SELECT * FROM users u WHERE u.verification_token = 'no-such-token'"),
+            check("UserRepository.findByParentId", "SELECT * FROM users u WHERE u.parent_id = :parentId"),
+            check("UserRepository.findCredentialsChangedAtById",
+                    "SELECT u.credentials_changed_at FROM users u WHERE u.id = :userId"),
+            // RewardBalanceRepository
+            check("RewardBalanceRepository.findByUserId", "SELECT * FROM reward_balances b WHERE b.user_id = :userId"),
+            check("RewardBalanceRepository.applyDelta", """
+                    INSERT INTO reward_balances (user_id, type, total, entry_count, updated_at)
+                    VALUES (:userId, 'EARN', 1, 1, now())
+                    ON CONFLICT (user_id, type) DO UPDATE SET
+                    total = reward_balances.total + EXCLUDED.total,
+                    entry_count = reward_balances.entry_count + EXCLUDED.entry_count, updated_at = now()"""),
+            check("RewardBalanceRepository.insertMissing", """
+                    INSERT INTO reward_balances (user_id, type, total, entry_count, updated_at)
+                    SELECT DISTINCT r.user_id, r.type, 0, 0, now() FROM rewards r WHERE r.user_id = ANY(:userIds)
+                    ON CONFLICT (user_id, type) DO NOTHING"""),
+            check("RewardBalanceRepository.lockForReconcile", """
+                    SELECT b.user_id FROM reward_balances b WHERE b.user_id = ANY(:userIds)
+                    ORDER BY b.user_id, b.type FOR UPDATE"""),
+            // The per-(user, type) sums are what idx_rewards_user_type (V7) is for
+            check("RewardBalanceRepository.repairFromRewards", """
+                    UPDATE reward_balances b
+                    SET total = COALESCE(a.total, 0), entry_count = COALESCE(a.entry_count, 0), updated_at = now()
+                    FROM reward_balances x LEFT JOIN (
+                        SELECT r.user_id, r.type, SUM(r.amount) AS total, COUNT(*) AS entry_count
+                        FROM rewards r WHERE r.user_id = ANY(:userIds) GROUP BY r.user_id, r.type) a
+                    ON a.user_id = x.user_id AND a.type = x.type
+                    WHERE x.user_id = ANY(:userIds) AND b.user_id = x.user_id AND b.type = x.type
+                    AND (ABS(COALESCE(a.total, 0) - b.total) > 1e-6 OR COALESCE(a.entry_count, 0) <> b.entry_count)"""),
+            check("UserRepository.findIdsAfter",
+                    "SELECT u.id FROM users u WHERE u.id > :userId ORDER BY u.id LIMIT 500"),
+            // OutboxEmailRepository
+            check("OutboxEmailRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAt",
+                    "SELECT * FROM email_outbox e WHERE e.status = 'PENDING' AND e.next_attempt_at <= now() "
+                            + "ORDER BY e.next_attempt_at LIMIT 20"),
+            // *Queries
+            check("BookReadQueries.findInProgress", """
+                    SELECT br.id, b.google_book_id, b.title, rc.read_count,
+                           COALESCE(array_agg(cr.chapter_id ORDER BY cr.completion_date)
+                                    FILTER (WHERE cr.chapter_id IS NOT NULL), '{}') AS read_chapter_ids
+                    FROM book_reads br
+                    JOIN books b ON b.google_book_id = br.google_book_id
+                    CROSS JOIN LATERAL (
+                        SELECT COUNT(*) AS read_count FROM book_reads x
+                        WHERE x.user_id = br.user_id AND x.google_book_id = br.google_book_id
+                    ) rc
+                    LEFT JOIN chapter_reads cr ON cr.book_read_id = br.id
+                    WHERE br.user_id = :userId AND br.in_progress
+                    GROUP BY br.id, b.google_book_id, rc.read_count
+                    ORDER BY br.start_date, br.id"""),
+            check("BookReadQueries.findLibrary", """
+                    SELECT b.google_book_id, b.title, bool_or(br.in_progress), COUNT(*), MAX(br.end_date)
+                    FROM book_reads br
+                    JOIN books b ON b.google_book_id = br.google_book_id
+                    WHERE br.user_id = :userId
+                    GROUP BY b.google_book_id
+                    ORDER BY MAX(COALESCE(br.end_date, br.start_date)) DESC, b.google_book_id"""),
+            check("ChapterReadQueries.streamHistory", """
+                    SELECT cr.id, cr.completion_date, cr.book_read_id, c.google_book_id, b.title,
+                           cr.chapter_id, c.chapter_index, c.name
+                    FROM chapter_reads cr
+                    JOIN chapters c ON c.id = cr.chapter_id
+                    JOIN books b ON b.google_book_id = c.google_book_id
+                    WHERE cr.user_id = :userId AND (cr.completion_date, cr.id) > (:readCompletedAt, :chapterReadId)
+                    ORDER BY cr.completion_date, cr.id"""),
+            check("UserQueries.findChildDashboards", """
+                    SELECT u.id, rb.earned, ip.titles,
+                           (SELECT COUNT(*) FROM chapter_reads cr
+                            WHERE cr.user_id = u.id AND cr.completion_date >= :weekStart) AS chapters_this_week,
+                           GREATEST(
+                               (SELECT MAX(cr.completion_date) FROM chapter_reads cr WHERE cr.user_id = u.id),
+                               (SELECT MAX(r.created_at) FROM rewards r WHERE r.user_id = u.id),
+                               (SELECT MAX(br.start_date) FROM book_reads br WHERE br.user_id = u.id)) AS last_activity
+                    FROM users u
+                    CROSS JOIN LATERAL (
+                        SELECT COALESCE(SUM(b.total) FILTER (WHERE b.type = 'EARN'), 0) AS earned
+                        FROM reward_balances b WHERE b.user_id = u.id
+                    ) rb
+                    CROSS JOIN LATERAL (
+                        SELECT COALESCE(array_agg(bk.title ORDER BY br.start_date), '{}') AS titles
+                        FROM book_reads br JOIN books bk ON bk.google_book_id = br.google_book_id
+                        WHERE br.user_id = u.id AND br.in_progress
+                    ) ip
+                    WHERE u.parent_id = :parentId
+                    ORDER BY u.first_name, u.username"""),
+            check("RewardQueries.deleteByChapterReadIds", """
+                    WITH d AS (DELETE FROM rewards r WHERE r.chapter_read_id = ANY(:chapterReadIds)
+                    RETURNING r.user_id, r.type, r.amount)
+                    SELECT user_id, type, SUM(amount), COUNT(*) FROM d GROUP BY user_id, type"""),
+            check("RewardQueries.deleteByBookReadId", """
+                    WITH d AS (DELETE FROM rewards r USING chapter_reads cr
+                    WHERE r.chapter_read_id = cr.id AND cr.book_read_id = :bookReadId
+                    RETURNING r.user_id, r.type, r.amount)
+                    SELECT user_id, type, SUM(amount), COUNT(*) FROM d GROUP BY user_id, type"""),
+            check("ChapterQueries.findReadChapterIndexes", """
+                    SELECT c.chapter_index FROM chapters c
+                    WHERE c.google_book_id = :googleBookId AND c.chapter_index = ANY(:chapterIndexes)
+                    AND EXISTS (SELECT 1 FROM chapter_reads cr WHERE cr.chapter_id = c.id)
+                    ORDER BY c.chapter_index"""),
+            check("VersionQueries.userVersion", "SELECT version FROM user_change_counters WHERE user_id = :userId"),
+            check("VersionQueries.libraryVersion", """
+                    SELECT COALESCE((SELECT c.version FROM user_change_counters c WHERE c.user_id = :userId), 0) AS version,
+                           (SELECT MAX(b.updated_at) FROM book_reads br
+                            JOIN books b ON b.google_book_id = br.google_book_id
+                            WHERE br.user_id = :userId) AS books_updated_at"""),
+            check("CatalogQueries.findBooks", """
+                    SELECT b.google_book_id, b.title, b.description, b.thumbnail_url, b.authors, b.created_at, b.updated_at
+                    FROM books b
+                    WHERE b.google_book_id = ANY(:googleBookIds)"""),
+            check("CatalogQueries.findChapters", """
+                    SELECT c.id, c.google_book_id, c.name, c.chapter_index, c.created_at, c.updated_at
+                    FROM chapters c
+                    WHERE c.google_book_id = ANY(:googleBookIds)
+                    ORDER BY c.google_book_id, c.chapter_index"""));
+
+    private final Map<String, String> options;
+    private final long largeTableRows;
+    private final long maxFiltered;
+    private final boolean printPlans;
+    private final ObjectMapper json = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--"))
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        System.exit(new PlanAudit(options).run());
+    }
+
+    PlanAudit(Map<String, String> options) {
+        this.options = options;
+        this.largeTableRows = Long.parseLong(options.getOrDefault("large-table-rows", "100000"));
+        this.maxFiltered = Long.parseLong(options.getOrDefault("max-filtered", "1000"));
+        this.printPlans = options.containsKey("plans");
+    }
+
+    private static Check check(String name, String sql) {
+        return new Check(name, sql, false, null);
+    }
+
+    int run() throws SQLException {
+        String url = options.getOrDefault("url", "jdbc:postgresql://localhost:5432/" + env("POSTGRES_DB", "postgres"));
+        try (Connection conn = DriverManager.getConnection(url,
+                options.getOrDefault("user", env("POSTGRES_USER", "postgres")),
+                options.getOrDefault("password", env("POSTGRES_PASSWORD", "postgres")))) {
+            conn.setAutoCommit(false);
+            Map<String, Long> tableRows = tableRows(conn);
+            Map<String, Object> samples = samples(conn);
+            conn.commit();
+
+            String only = options.get("only");
+            List<String> failures = new ArrayList<>();
+            System.out.printf("%-72s %10s %10s %10s  %s%n", "query", "exec ms", "buf hit", "buf read", "indexes");
+            for (Check check : CHECKS) {
+                if (only != null && !check.name().contains(only))
+                    continue;
+                JsonNode plan = explain(conn, check, samples);
+                PlanSummary summary = new PlanSummary();
+                summary.executionMs = plan.path("Execution Time").asDouble();
+                walk(plan.path("Plan"), summary, tableRows);
+                JsonNode top = plan.path("Plan");
+                summary.sharedHit = top.path("Shared Hit Blocks").asLong();
+                summary.sharedRead = top.path("Shared Read Blocks").asLong();
+                System.out.printf("%-72s %10.2f %10d %10d  %s%n", check.name(), summary.executionMs,
+                        summary.sharedHit, summary.sharedRead, String.join(", ", summary.indexes));
+                boolean failed = false;
+                if (!check.fullScan() && !summary.seqScans.isEmpty()) {
+                    failures.add(check.name() + ": Seq Scan on " + String.join(", ", summary.seqScans));
+                    failed = true;
+                }
+                if (!check.fullScan() && !summary.filtered.isEmpty()) {
+                    failures.add(check.name() + ": filtered out " + String.join(", ", summary.filtered));
+                    failed = true;
+                }
+                if (failed || printPlans)
+                    printTree(plan.path("Plan"), "    ");
+            }
+            System.out.println();
+            if (failures.isEmpty()) {
+                System.out.printf("No sequential scans on tables over %d rows, no scans filtering out over %d rows%n",
+                        largeTableRows, maxFiltered);
+                return 0;
+            }
+            System.out.printf("%d plan problems:%n", failures.size());
+            failures.forEach(f -> System.out.println("  " + f));
+            return 1;
+        }
+    }
+
+    private static String env(String name, String fallback) {
+        String value = System.getenv(name);
+        return value != null ? value : fallback;
+    }
+
+    // Planner row estimates, so "large" follows the data rather than a fixed list
+    private Map<String, Long> tableRows(Connection conn) throws SQLException {
+        Map<String, Long> rows = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement("""
+                SELECT c.relname, c.reltuples::bigint FROM pg_class c
+                JOIN pg_namespace n ON n.oid = c.relnamespace
+                WHERE n.nspname = current_schema() AND c.relkind = 'r'""");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next())
+                rows.put(rs.getString(1), rs.getLong(2));
+        }
+        return rows;
+    }
+
+    // Worst-case parameter values: the heaviest child, book, book read and parent
+    private Map<String, Object> samples(Connection conn) throws SQLException {
+        Map<String, Object> s = new HashMap<>();
+        row(conn, "SELECT user_id FROM rewards GROUP BY user_id ORDER BY COUNT(*) DESC LIMIT 1", s, "userId");
+        row(conn, "SELECT username FROM users WHERE id = '" + s.get("userId") + "'", s, "username");
+        row(conn, "SELECT parent_id FROM users WHERE parent_id IS NOT NULL GROUP BY parent_id ORDER BY COUNT(*) DESC LIMIT 1",
+                s, "parentId");
+        row(conn, "SELECT email FROM users WHERE id = '" + s.get("parentId") + "'", s, "email");
+        row(conn, "SELECT book_read_id FROM chapter_reads GROUP BY book_read_id ORDER BY COUNT(*) DESC LIMIT 1",
+                s, "bookReadId");
+        row(conn, "SELECT google_book_id FROM book_reads GROUP BY google_book_id ORDER BY COUNT(*) DESC LIMIT 1",
+                s, "googleBookId");
+        row(conn, """
+                SELECT cr.id, cr.chapter_id, cr.completion_date FROM chapter_reads cr
+                WHERE cr.user_id = '%s' ORDER BY cr.completion_date, cr.id
+                OFFSET (SELECT COUNT(*) / 2 FROM chapter_reads WHERE user_id = '%s') LIMIT 1"""
+                .formatted(s.get("userId"), s.get("userId")), s, "chapterReadId", "chapterId", "readCompletedAt");
+        row(conn, """
+                SELECT r.id, r.created_at FROM rewards r WHERE r.user_id = '%s' ORDER BY r.created_at DESC, r.id DESC
+                OFFSET 100 LIMIT 1""".formatted(s.get("userId")), s, "rewardId", "rewardCreatedAt");
+        row(conn, "SELECT array_agg(id) FROM (SELECT id FROM chapter_reads WHERE book_read_id = '" + s.get("bookReadId")
+                + "' LIMIT 100) x", s, "chapterReadIds");
+        row(conn, "SELECT array_agg(id), array_agg(chapter_index) FROM chapters WHERE google_book_id = '"
+                + s.get("googleBookId") + "'", s, "chapterIds", "chapterIndexes");
+        row(conn, "SELECT date_trunc('week', MAX(completion_date)) FROM chapter_reads", s, "weekStart");
+        row(conn, "SELECT array_agg(id) FROM (SELECT id FROM users WHERE id >= '" + s.get("userId")
+                + "' ORDER BY id LIMIT 500) x", s, "userIds");
+        row(conn, "SELECT array_agg(DISTINCT google_book_id) FROM book_reads WHERE user_id = '" + s.get("userId") + "'",
+                s, "googleBookIds");
+        return s;
+    }
+
+    private static void row(Connection conn, String sql, Map<String, Object> into, String... names) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            if (!rs.next())
+                throw new IllegalStateException("No data for " + String.join(", ", names) + "; run DatasetGenerator first");
+            for (int i = 0; i < names.length; i++) {
+                Object value = rs.getObject(i + 1);
+                if (value == null)
+                    throw new IllegalStateException("No data for " + names[i] + "; run DatasetGenerator first");
+                into.put(names[i], value);
+            }
+        }
+    }
+
+    private JsonNode explain(Connection conn, Check check, Map<String, Object> samples) throws SQLException {
+        try {
+            if (check.setup() != null) {
+                try (PreparedStatement ps = prepare(conn, check, check.setup(), samples)) {
+                    ps.execute();
+                }
+            }
+            try (PreparedStatement ps = prepare(conn, check, "EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + check.sql(), samples);
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return json.readTree(rs.getString(1)).get(0);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        } finally {
+            // ANALYZE really executes the statement; never keep what it wrote
+            conn.rollback();
+        }
+    }
+
+    // Binds :name parameters from the samples
+    private static PreparedStatement prepare(Connection conn, Check check, String namedSql, Map<String, Object> samples)
+            throws SQLException {
+        List<Object> params = new ArrayList<>();
+        Matcher m = PARAM.matcher(namedSql);
+        StringBuilder sql = new StringBuilder();
+        while (m.find()) {
+            if (!samples.containsKey(m.group(1)))
+                throw new IllegalStateException(check.name() + " uses unknown parameter :" + m.group(1));
+            params.add(samples.get(m.group(1)));
+            m.appendReplacement(sql, "?");
+        }
+        m.appendTail(sql);
+        PreparedStatement ps = conn.prepareStatement(sql.toString());
+        for (int i = 0; i < params.size(); i++) {
+            if (params.get(i) instanceof Array array)
+                ps.setArray(i + 1, array);
+            else
+                ps.setObject(i + 1, params.get(i));
+        }
+        return ps;
+    }
+
+    private void walk(JsonNode node, PlanSummary summary, Map<String, Long> tableRows) {
+        String type = node.path("Node Type").asText();
+        String relation = node.path("Relation Name").asText(null);
+        if (type.equals("Seq Scan") && relation != null && tableRows.getOrDefault(relation, 0L) > largeTableRows)
+            summary.seqScans.add(relation);
+        // Per-loop figures; a nested inner scan repeats them Actual Loops times
+        long loops = Math.max(1, node.path("Actual Loops").asLong());
+        long removed = node.path("Rows Removed by Filter").asLong() * loops;
+        long kept = node.path("Actual Rows").asLong() * loops;
+        if (relation != null && removed > maxFiltered && removed > 10 * kept)
+            summary.filtered.add(String.format("%d of %d rows from %s", removed, removed + kept, relation));
+        if (node.has("Index Name"))
+            summary.indexes.add(node.get("Index Name").asText() + (type.equals("Index Only Scan") ? " (only)" : ""));
+        for (JsonNode child : node.path("Plans"))
+            walk(child, summary, tableRows);
+    }
+
+    private static void printTree(JsonNode node, String indent) {
+        StringBuilder line = new StringBuilder(indent).append(node.path("Node Type").asText());
+        if (node.has("Relation Name"))
+            line.append(" on ").append(node.get("Relation Name").asText());
+        if (node.has("Index Name"))
+            line.append(" using ").append(node.get("Index Name").asText());
+        line.append(String.format("  rows=%d loops=%d time=%.3f hit=%d read=%d",
+                node.path("Actual Rows").asLong(), node.path("Actual Loops").asLong(),
+                node.path("Actual Total Time").asDouble(), node.path("Shared Hit Blocks").asLong(),
+                node.path("Shared Read Blocks").asLong()));
+        if (node.has("Rows Removed by Filter"))
+            line.append(" removed=").append(node.get("Rows Removed by Filter").asLong());
+        for (String key : List.of("Index Cond", "Filter", "Recheck Cond")) {
+            if (node.has(key))
+                line.append("  ").append(key.toLowerCase()).append(": ").append(node.get(key).asText());
+        }
+        System.out.println(line);
+        for (JsonNode child : node.path("Plans"))
+            printTree(child, indent + "  ");
+    }
+}
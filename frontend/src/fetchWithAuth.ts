@@ -1,12 +1,24 @@
 // fetchWithAuth.ts - wrapper for fetch that adds JWT and handles 401
 
+// Time of this tab's last write, sent back so reads right after it are served from a
+// database that already has it
+const LAST_WRITE_HEADER = 'X-Last-Write';
+
 export async function fetchWithAuth(url: string, options: any = {}, token: string | null = null) {
   const headers = options.headers || {};
   if (token) {
     headers['Authorization'] = `Bearer ${token}`;
   }
+  const lastWrite = sessionStorage.getItem(LAST_WRITE_HEADER);
+  if (lastWrite) {
+    headers[LAST_WRITE_HEADER] = lastWrite;
+  }
   options.headers = headers;
   const res = await fetch(url, options);
+  const written = res.headers.get(LAST_WRITE_HEADER);
+  if (written) {
+    sessionStorage.setItem(LAST_WRITE_HEADER, written);
+  }
   if (res.status === 401) {
     // Optionally, trigger logout or redirect
     window.location.href = '/';